@@ -0,0 +1,140 @@
+/**************************************************************************************
+ * fpstiming_tree
+ * Copyright (c) 2014-2017 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ **************************************************************************************/
+
+package remixlab.fpstiming;
+
+import java.util.Arrays;
+
+/**
+ * Pooled sequential timers of a {@link remixlab.fpstiming.TimingHandler}, kept in the
+ * order they were pooled (i.e., their tasks registration order) together with a bit set
+ * flagging the active ones, so that {@link remixlab.fpstiming.TimingHandler#handle()}
+ * visits the active timers in registration order while running or stopping a timer
+ * takes constant time.
+ * <p>
+ * Unpooled timers leave a hole in their slot, and holes are compacted (keeping the
+ * order) once they're as many as the pooled timers.
+ */
+class ActiveTimers {
+  SeqTimer[] timers;
+  long[] active;
+  // used slots, holes included
+  int size;
+  int holes;
+  int count;
+
+  ActiveTimers() {
+    timers = new SeqTimer[64];
+    active = new long[1];
+  }
+
+  /**
+   * Returns {@code true} if there are no active timers.
+   */
+  boolean isEmpty() {
+    return count == 0;
+  }
+
+  /**
+   * Appends the timer to the pooled ones. Does nothing if it's already pooled.
+   */
+  void add(SeqTimer timer) {
+    if (timer.poolIndex >= 0)
+      return;
+    if (size == timers.length) {
+      timers = Arrays.copyOf(timers, size << 1);
+      active = Arrays.copyOf(active, timers.length >> 6);
+    }
+    timers[size] = timer;
+    timer.poolIndex = size++;
+  }
+
+  /**
+   * Puts the timer in the slot of the previous one, which is removed. Does nothing if the
+   * previous timer isn't pooled or the timer already is.
+   */
+  void replace(SeqTimer previous, SeqTimer timer) {
+    int slot = previous.poolIndex;
+    if (slot < 0 || timer.poolIndex >= 0)
+      return;
+    setActive(previous, false);
+    previous.poolIndex = -1;
+    timers[slot] = timer;
+    timer.poolIndex = slot;
+  }
+
+  /**
+   * Removes the timer from the pooled ones. Does nothing if it isn't pooled.
+   */
+  void remove(SeqTimer timer) {
+    int slot = timer.poolIndex;
+    if (slot < 0)
+      return;
+    setActive(timer, false);
+    timers[slot] = null;
+    timer.poolIndex = -1;
+    if (++holes > 32 && holes << 1 > size)
+      compact();
+  }
+
+  /**
+   * Flags the pooled timer as active or not.
+   */
+  void setActive(SeqTimer timer, boolean flag) {
+    int slot = timer.poolIndex;
+    if (slot < 0)
+      return;
+    long bit = 1L << slot;
+    boolean current = (active[slot >> 6] & bit) != 0;
+    if (current == flag)
+      return;
+    active[slot >> 6] ^= bit;
+    count += flag ? 1 : -1;
+  }
+
+  /**
+   * Returns the first slot, not less than the given one, holding an active timer, or
+   * {@code -1} if there's none.
+   */
+  int next(int slot) {
+    if (slot >= size)
+      return -1;
+    int word = slot >> 6;
+    long bits = active[word] & (-1L << slot);
+    while (bits == 0) {
+      if (++word << 6 >= size)
+        return -1;
+      bits = active[word];
+    }
+    return (word << 6) + Long.numberOfTrailingZeros(bits);
+  }
+
+  /**
+   * Moves the pooled timers into the holes, keeping their order.
+   */
+  protected void compact() {
+    int n = 0;
+    for (int i = 0; i < size; i++) {
+      SeqTimer timer = timers[i];
+      if (timer == null)
+        continue;
+      boolean flag = (active[i >> 6] & 1L << i) != 0;
+      active[i >> 6] &= ~(1L << i);
+      timers[i] = null;
+      timers[n] = timer;
+      timer.poolIndex = n;
+      if (flag)
+        active[n >> 6] |= 1L << n;
+      n++;
+    }
+    size = n;
+    holes = 0;
+  }
+}
@@ -18,6 +18,15 @@ public class AnimatorObject implements Animator {
   protected boolean started;
   protected long animationPeriod;
   protected TimingHandler handler;
+  // fixed timestep
+  protected boolean fixedTimestep;
+  protected int maxSteps = 5;
+  protected long accumulator;
+  protected long lastStepTime;
+  protected float alpha;
+  protected int lodFactor = 1;
+  // slot in the handler started animated objects (see Pool)
+  int activeSlot = -1;
 
   /**
    * Constructs an animated object with a default {@link #animationPeriod()} of 40
@@ -129,6 +138,8 @@ public class AnimatorObject implements Animator {
     started = false;
     if (timer() != null)
       timer().stop();
+    if (handler != null)
+      handler.updateAnimator(this);
   }
 
   /**
@@ -139,8 +150,14 @@ public class AnimatorObject implements Animator {
   @Override
   public void startAnimation() {
     started = true;
+    accumulator = 0;
+    alpha = 0;
+    if (handler != null)
+      lastStepTime = handler.startTime();
     if (timer() != null)
-      timer().run(animationPeriod);
+      timer().run(animationPeriod * Math.max(lodFactor, 1));
+    if (handler != null)
+      handler.updateAnimator(this);
   }
 
   /**
@@ -166,6 +183,124 @@ public class AnimatorObject implements Animator {
       startAnimation();
   }
 
+  /**
+   * Enables the fixed timestep mode: instead of calling {@link #animate()} whenever the
+   * {@link #timer()} is triggered, the elapsed frame time is accumulated and
+   * {@link #animate()} is called once per whole {@link #animationPeriod()} it contains,
+   * up to {@link #maxStepsPerFrame()} times per frame. The remaining fraction of a step
+   * is given by {@link #alpha()}, which the render side may use to interpolate between
+   * the last two animation states.
+   *
+   * @see #disableFixedTimestep()
+   */
+  public void enableFixedTimestep() {
+    fixedTimestep = true;
+    accumulator = 0;
+    alpha = 0;
+    if (handler != null)
+      lastStepTime = handler.startTime();
+  }
+
+  /**
+   * Disables the fixed timestep mode (default).
+   *
+   * @see #enableFixedTimestep()
+   */
+  public void disableFixedTimestep() {
+    fixedTimestep = false;
+  }
+
+  /**
+   * Returns {@code true} if the fixed timestep mode is enabled and {@code false}
+   * otherwise.
+   *
+   * @see #enableFixedTimestep()
+   */
+  public boolean isFixedTimestepEnabled() {
+    return fixedTimestep;
+  }
+
+  /**
+   * Returns the maximum number of fixed steps performed per frame. Whole steps left in
+   * the accumulator beyond that number are dropped, so that a low frame rate doesn't make
+   * the animation pile up work. Default is {@code 5}.
+   */
+  public int maxStepsPerFrame() {
+    return maxSteps;
+  }
+
+  /**
+   * Sets the maximum number of fixed steps performed per frame.
+   *
+   * @see #maxStepsPerFrame()
+   */
+  public void setMaxStepsPerFrame(int steps) {
+    if (steps > 0)
+      maxSteps = steps;
+  }
+
+  /**
+   * Returns the interpolation factor in {@code [0..1)} between the last two fixed steps,
+   * i.e., the fraction of {@link #animationPeriod()} left in the accumulator after the
+   * last frame. Only meaningful when {@link #isFixedTimestepEnabled()}.
+   */
+  public float alpha() {
+    return alpha;
+  }
+
+  /**
+   * Performs the fixed steps due at the given frame time (in nanoseconds) and returns
+   * their number.
+   * <p>
+   * <b>Note:</b> You should not call this method since it's done by the timing handler
+   * (see {@link remixlab.fpstiming.TimingHandler#handle()}).
+   */
+  protected int step(long frameTime) {
+    long step = animationPeriod * 1000000L;
+    accumulator += frameTime - lastStepTime;
+    lastStepTime = frameTime;
+    int steps = 0;
+    while (accumulator >= step && steps < maxSteps) {
+      if (!invokeAnimationHandler())
+        animate();
+      accumulator -= step;
+      steps++;
+    }
+    if (accumulator >= step)
+      accumulator %= step;
+    alpha = (float) accumulator / step;
+    return steps;
+  }
+
+  /**
+   * Returns the factor by which the {@link #animationPeriod()} is currently stretched by
+   * the handler LOD policy, or {@code 0} if the animation is suspended by it (see
+   * {@link remixlab.fpstiming.TimingHandler#setLodPolicy(LodPolicy)}). Default is
+   * {@code 1}.
+   */
+  public int lodFactor() {
+    return lodFactor;
+  }
+
+  /**
+   * Stretches the animation period by the given factor, or suspends the animation if it's
+   * {@code 0}. The period of a fixed timestep animation is never stretched.
+   * <p>
+   * <b>Note:</b> You should not call this method since it's done by the timing handler
+   * (see {@link remixlab.fpstiming.TimingHandler#setLodPolicy(LodPolicy)}).
+   */
+  protected void setLodFactor(int factor) {
+    int previous = lodFactor;
+    lodFactor = factor;
+    if (!started || factor == 0)
+      return;
+    if (fixedTimestep) {
+      if (previous == 0)
+        lastStepTime = handler.frameTime();
+    } else if (timer() != null)
+      timer().run(animationPeriod * factor);
+  }
+
   @Override
   public void animate() {
   }
@@ -0,0 +1,92 @@
+/**************************************************************************************
+ * fpstiming_tree
+ * Copyright (c) 2014-2017 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ **************************************************************************************/
+
+package remixlab.fpstiming;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Splits the {@link remixlab.fpstiming.TimingHandler#animators()} into contiguous
+ * shards which are animated in parallel on a fork-join pool, while the animators pinned
+ * to the main thread (see
+ * {@link remixlab.fpstiming.TimingHandler#pinToMainThread(Animator)}) are animated by the
+ * thread calling {@link remixlab.fpstiming.TimingHandler#handle()}. All the shards are
+ * joined before the frame ends, so that each animator is animated at most by one thread
+ * per frame and in frame order.
+ */
+class AnimatorShards {
+  protected TimingHandler handler;
+  protected ForkJoinPool pool;
+  protected Shard[] shards;
+
+  class Shard extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    int from, to;
+
+    @Override
+    protected void compute() {
+      Pool<Animator> animators = handler.aPool;
+      Pool<Animator> pinned = handler.pinned;
+      for (int i = from; i < to; i++) {
+        Animator aObj = animators.get(i);
+        if (aObj.animationStarted() && !pinned.contains(aObj))
+          handler.animate(aObj);
+      }
+    }
+  }
+
+  AnimatorShards(TimingHandler h, ForkJoinPool p, int count) {
+    handler = h;
+    pool = p;
+    shards = new Shard[Math.max(1, count)];
+    for (int i = 0; i < shards.length; i++)
+      shards[i] = new Shard();
+  }
+
+  /**
+   * Animates the handler animators, returning once all of them are done.
+   */
+  void animate() {
+    int size = handler.aPool.size();
+    int chunk = (size + shards.length - 1) / shards.length;
+    int forked = 0;
+    for (int i = 0; i < shards.length; i++) {
+      Shard shard = shards[i];
+      shard.from = Math.min(size, i * chunk);
+      shard.to = Math.min(size, shard.from + chunk);
+      if (shard.from == shard.to)
+        continue;
+      shard.reinitialize();
+      pool.execute(shard);
+      forked++;
+    }
+    RuntimeException failure = null;
+    try {
+      Pool<Animator> pinned = handler.pinned;
+      for (int i = 0; i < pinned.size(); i++) {
+        Animator aObj = pinned.get(i);
+        if (aObj.animationStarted() && handler.aPool.contains(aObj))
+          handler.animate(aObj);
+      }
+    } catch (RuntimeException e) {
+      failure = e;
+    }
+    for (int i = 0; i < forked; i++)
+      try {
+        shards[i].join();
+      } catch (RuntimeException e) {
+        if (failure == null)
+          failure = e;
+      }
+    if (failure != null)
+      throw failure;
+  }
+}
@@ -0,0 +1,168 @@
+/**************************************************************************************
+ * fpstiming_tree
+ * Copyright (c) 2014-2017 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ **************************************************************************************/
+
+package remixlab.fpstiming;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Timing task doing its work (e.g., I/O or heavy computations) asynchronously, so that it
+ * doesn't block {@link remixlab.fpstiming.TimingHandler#handle()}. Each time the task is
+ * triggered its work is started on an executor (see {@link #start(Executor)}), and once
+ * it's done its outcome is queued and applied on the frame thread at the beginning of a
+ * later {@link remixlab.fpstiming.TimingHandler#handle()}, by calling
+ * {@link #completed(Object)} or {@link #failed(Throwable)}, so that the application
+ * state is still only touched by the frame thread. See
+ * {@link remixlab.fpstiming.TimingHandler#setCompletionLimit(int)} to bound the number of
+ * outcomes applied per frame.
+ * <p>
+ * A trigger taking place while the work of the previous one is still running is skipped.
+ *
+ * @param <T> the type of the result of the work
+ */
+public abstract class AsyncTask<T> extends TimingTask {
+  protected TimingHandler handler;
+  protected Executor executor;
+  protected volatile CompletableFuture<T> future;
+  // outcome of the last work, handed to the frame thread through the handler queue
+  T result;
+  Throwable error;
+
+  /**
+   * Constructs an async task registered at the given handler, running its work on the
+   * handler {@link remixlab.fpstiming.TimingHandler#executor()}.
+   */
+  public AsyncTask(TimingHandler h) {
+    handler = h;
+    handler.registerTask(this);
+  }
+
+  /**
+   * Does the work of the task. Called from an executor thread by the default
+   * {@link #start(Executor)} implementation.
+   */
+  protected abstract T call() throws Exception;
+
+  /**
+   * Called on the frame thread with the result of the work.
+   */
+  protected void completed(T result) {
+  }
+
+  /**
+   * Called on the frame thread when the work threw an exception or was cancelled.
+   */
+  protected void failed(Throwable error) {
+  }
+
+  /**
+   * Starts the work on the given executor and returns its future. The default
+   * implementation runs {@link #call()}. Override it to use an API which already returns
+   * a future (e.g., an asynchronous HTTP client).
+   */
+  protected CompletableFuture<T> start(Executor e) {
+    return CompletableFuture.supplyAsync(new Supplier<T>() {
+      @Override
+      public T get() {
+        try {
+          return call();
+        } catch (RuntimeException e) {
+          throw e;
+        } catch (Exception e) {
+          throw new CompletionException(e);
+        }
+      }
+    }, e);
+  }
+
+  /**
+   * Starts the work, unless the previous one is still running.
+   */
+  @Override
+  public void execute() {
+    if (isRunning())
+      return;
+    final CompletableFuture<T> f;
+    try {
+      f = start(executor != null ? executor : handler.executor());
+    } catch (RuntimeException e) {
+      error = e;
+      handler.postCompletion(this);
+      return;
+    }
+    future = f;
+    f.whenComplete(new BiConsumer<T, Throwable>() {
+      @Override
+      public void accept(T value, Throwable t) {
+        result = value;
+        error = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+        handler.postCompletion(AsyncTask.this);
+      }
+    });
+  }
+
+  /**
+   * Applies the outcome of the last work. Called by the handler on the frame thread.
+   */
+  void complete() {
+    T value = result;
+    Throwable t = error;
+    result = null;
+    error = null;
+    future = null;
+    if (t != null)
+      failed(t);
+    else
+      completed(value);
+  }
+
+  /**
+   * Returns {@code true} if the work was started and its outcome was not applied yet.
+   */
+  public boolean isRunning() {
+    return future != null;
+  }
+
+  /**
+   * Returns the future of the running work, or {@code null} if there's none.
+   */
+  public CompletableFuture<T> future() {
+    return future;
+  }
+
+  /**
+   * Cancels the running work, if any. Its outcome is then applied as a failure.
+   */
+  public void cancelWork() {
+    CompletableFuture<T> f = future;
+    if (f != null)
+      f.cancel(true);
+  }
+
+  /**
+   * Returns the executor used to run the work, or {@code null} if it's the handler one.
+   */
+  public Executor executor() {
+    return executor;
+  }
+
+  /**
+   * Sets the executor used to run the work, e.g., one creating virtual threads for
+   * blocking I/O. Pass {@code null} to use the handler
+   * {@link remixlab.fpstiming.TimingHandler#executor()} (default).
+   */
+  public void setExecutor(Executor e) {
+    executor = e;
+  }
+}
@@ -0,0 +1,29 @@
+/**************************************************************************************
+ * fpstiming_tree
+ * Copyright (c) 2014-2017 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ **************************************************************************************/
+
+package remixlab.fpstiming;
+
+/**
+ * Interface defining the time source of a {@link remixlab.fpstiming.TimingHandler}.
+ * <p>
+ * The handler samples its clock once per frame (see
+ * {@link remixlab.fpstiming.TimingHandler#frameTime()}) and all its timers share that
+ * sample.
+ *
+ * @see remixlab.fpstiming.NanoClock
+ * @see remixlab.fpstiming.ManualClock
+ */
+public interface Clock {
+  /**
+   * Returns the current time in nanoseconds. Only differences between two values are
+   * meaningful, and the clock should be monotonic.
+   */
+  long nanoTime();
+}
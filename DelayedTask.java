@@ -0,0 +1,46 @@
+/**************************************************************************************
+ * fpstiming_tree
+ * Copyright (c) 2014-2017 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ **************************************************************************************/
+
+package remixlab.fpstiming;
+
+/**
+ * Recyclable single shot task wrapping a {@link remixlab.fpstiming.Taskable} callback.
+ * Instances are obtained from {@link remixlab.fpstiming.TimingHandler#runOnce(Taskable,
+ * long)} and are handed back to the handler (together with their sequential timer) once
+ * they are executed, so that one-off delays don't allocate a new task and timer each
+ * time.
+ * <p>
+ * <b>Note:</b> A reference to a delayed task is only valid until the task is executed.
+ * Afterwards, the instance may be reused to run another callback.
+ */
+public class DelayedTask extends TimingTask {
+  protected Taskable callback;
+
+  /**
+   * Returns the wrapped callback, or {@code null} when the task is idle.
+   */
+  public Taskable callback() {
+    return callback;
+  }
+
+  /**
+   * Sets the wrapped callback.
+   */
+  public void setCallback(Taskable c) {
+    callback = c;
+  }
+
+  @Override
+  public void execute() {
+    Taskable c = callback;
+    if (c != null)
+      c.execute();
+  }
+}
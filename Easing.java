@@ -0,0 +1,85 @@
+/**************************************************************************************
+ * fpstiming_tree
+ * Copyright (c) 2014-2017 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ **************************************************************************************/
+
+package remixlab.fpstiming;
+
+/**
+ * Easing functions used by the {@link remixlab.fpstiming.TweenEngine} to interpolate
+ * between two keyframes. Each one maps the normalized time elapsed between the keyframes
+ * (in {@code [0,1]}) to the normalized interpolation weight.
+ *
+ * @see remixlab.fpstiming.TweenEngine#setEasing(int, Easing)
+ */
+public enum Easing {
+  /**
+   * Constant speed (default).
+   */
+  LINEAR,
+  /**
+   * Holds the value of the first keyframe until the second one is reached.
+   */
+  STEP,
+  QUAD_IN,
+  QUAD_OUT,
+  QUAD_IN_OUT,
+  CUBIC_IN,
+  CUBIC_OUT,
+  CUBIC_IN_OUT,
+  SINE_IN,
+  SINE_OUT,
+  SINE_IN_OUT;
+
+  static final Easing[] VALUES = values();
+
+  /**
+   * Returns the interpolation weight at the normalized time {@code t}.
+   */
+  public float ease(float t) {
+    return ease(ordinal(), t);
+  }
+
+  /**
+   * Same as {@link #ease(float)}, taking the easing by its ordinal. Internal use.
+   */
+  static float ease(int easing, float t) {
+    switch (easing) {
+      case 0: // LINEAR
+        return t;
+      case 1: // STEP
+        return t < 1 ? 0 : 1;
+      case 2: // QUAD_IN
+        return t * t;
+      case 3: // QUAD_OUT
+        return t * (2 - t);
+      case 4: // QUAD_IN_OUT
+        return t < 0.5f ? 2 * t * t : -1 + (4 - 2 * t) * t;
+      case 5: // CUBIC_IN
+        return t * t * t;
+      case 6: { // CUBIC_OUT
+        float u = t - 1;
+        return u * u * u + 1;
+      }
+      case 7: { // CUBIC_IN_OUT
+        if (t < 0.5f)
+          return 4 * t * t * t;
+        float u = 2 * t - 2;
+        return 0.5f * u * u * u + 1;
+      }
+      case 8: // SINE_IN
+        return 1 - (float) Math.cos(t * Math.PI / 2);
+      case 9: // SINE_OUT
+        return (float) Math.sin(t * Math.PI / 2);
+      case 10: // SINE_IN_OUT
+        return 0.5f * (1 - (float) Math.cos(Math.PI * t));
+      default:
+        return t;
+    }
+  }
+}
@@ -0,0 +1,64 @@
+/**************************************************************************************
+ * fpstiming_tree
+ * Copyright (c) 2014-2017 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ **************************************************************************************/
+
+package remixlab.fpstiming;
+
+/**
+ * Default {@link remixlab.fpstiming.FrameRateEstimator} which integrates the
+ * instantaneous frame rate with an exponential moving average. The initial value is 10
+ * fps, so that the estimation won't be valid until after 5-10 frames.
+ */
+public class EmaEstimator implements FrameRateEstimator {
+  protected float initialRate;
+  protected float weight;
+  protected float rate;
+  protected long period;
+
+  /**
+   * Same as {@code this(10, 0.1f)}.
+   */
+  public EmaEstimator() {
+    this(10, 0.1f);
+  }
+
+  /**
+   * Constructs an estimator starting at {@code initialRate} fps, which weights each new
+   * measurement by {@code weight} (in {@code (0..1]}).
+   */
+  public EmaEstimator(float initialRate, float weight) {
+    this.initialRate = initialRate;
+    this.weight = weight;
+    reset();
+  }
+
+  @Override
+  public void update(long frameNanos) {
+    if (frameNanos <= 0)
+      return;
+    rate += (1e9f / frameNanos - rate) * weight;
+    period = (long) (1e9f / rate);
+  }
+
+  @Override
+  public float frameRate() {
+    return rate;
+  }
+
+  @Override
+  public long framePeriod() {
+    return period;
+  }
+
+  @Override
+  public void reset() {
+    rate = initialRate;
+    period = (long) (1e9f / rate);
+  }
+}
@@ -0,0 +1,196 @@
+/**************************************************************************************
+ * fpstiming_tree
+ * Copyright (c) 2014-2017 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ **************************************************************************************/
+
+package remixlab.fpstiming;
+
+import java.util.Arrays;
+
+/**
+ * Execution time statistics of a task or animator callback (or of whole frames), as
+ * collected by the {@link remixlab.fpstiming.TimingMetrics} of a
+ * {@link remixlab.fpstiming.TimingHandler}. All times are given in nanoseconds.
+ * <p>
+ * Percentiles are estimated from a log-linear histogram (four buckets per power of two),
+ * so that they are accurate up to 25%.
+ */
+public class ExecutionStats {
+  protected static final int SUB_BITS = 2;
+  protected static final int SUB_COUNT = 1 << SUB_BITS;
+
+  protected long count;
+  protected long total;
+  protected long last;
+  protected long max;
+  protected int[] histogram;
+  protected long missed;
+  protected long lateCount;
+  protected long totalLateness;
+  protected long maxLateness;
+
+  /**
+   * Constructs empty statistics.
+   */
+  public ExecutionStats() {
+    histogram = new int[(64 - SUB_BITS) * SUB_COUNT];
+  }
+
+  /**
+   * Returns a copy of these statistics.
+   */
+  public ExecutionStats copy() {
+    ExecutionStats stats = new ExecutionStats();
+    stats.count = count;
+    stats.total = total;
+    stats.last = last;
+    stats.max = max;
+    stats.histogram = Arrays.copyOf(histogram, histogram.length);
+    stats.missed = missed;
+    stats.lateCount = lateCount;
+    stats.totalLateness = totalLateness;
+    stats.maxLateness = maxLateness;
+    return stats;
+  }
+
+  /**
+   * Records an execution taking the given time.
+   */
+  public void record(long nanos) {
+    if (nanos < 0)
+      nanos = 0;
+    count++;
+    total += nanos;
+    last = nanos;
+    if (nanos > max)
+      max = nanos;
+    histogram[bucket(nanos)]++;
+  }
+
+  /**
+   * Records the lateness of an execution with respect to its deadline, and whether or
+   * not the execution missed (at least) one whole period.
+   */
+  public void recordLateness(long nanos, boolean missedDeadline) {
+    if (nanos < 0)
+      nanos = 0;
+    lateCount++;
+    totalLateness += nanos;
+    if (nanos > maxLateness)
+      maxLateness = nanos;
+    if (missedDeadline)
+      missed++;
+  }
+
+  /**
+   * Clears the statistics.
+   */
+  public void reset() {
+    count = total = last = max = 0;
+    missed = lateCount = totalLateness = maxLateness = 0;
+    Arrays.fill(histogram, 0);
+  }
+
+  /**
+   * Returns the number of recorded executions.
+   */
+  public long count() {
+    return count;
+  }
+
+  /**
+   * Returns the total execution time.
+   */
+  public long totalTime() {
+    return total;
+  }
+
+  /**
+   * Returns the time taken by the last execution.
+   */
+  public long lastTime() {
+    return last;
+  }
+
+  /**
+   * Returns the mean execution time.
+   */
+  public double meanTime() {
+    return count == 0 ? 0 : (double) total / count;
+  }
+
+  /**
+   * Returns the maximum execution time.
+   */
+  public long maxTime() {
+    return max;
+  }
+
+  /**
+   * Returns the (estimated) execution time below which the given fraction (in
+   * {@code [0..1]}) of the executions fall, e.g., {@code percentile(0.99)}.
+   */
+  public long percentile(double fraction) {
+    if (count == 0)
+      return 0;
+    long rank = (long) Math.ceil(fraction * count);
+    if (rank < 1)
+      rank = 1;
+    long seen = 0;
+    for (int i = 0; i < histogram.length; i++) {
+      seen += histogram[i];
+      if (seen >= rank)
+        return Math.min(upperBound(i), max);
+    }
+    return max;
+  }
+
+  /**
+   * Returns the number of executions that missed at least one whole period.
+   */
+  public long missedDeadlines() {
+    return missed;
+  }
+
+  /**
+   * Returns the mean lateness of the executions with respect to their deadlines.
+   */
+  public double meanLateness() {
+    return lateCount == 0 ? 0 : (double) totalLateness / lateCount;
+  }
+
+  /**
+   * Returns the maximum lateness of the executions with respect to their deadlines.
+   */
+  public long maxLateness() {
+    return maxLateness;
+  }
+
+  protected static int bucket(long value) {
+    if (value < SUB_COUNT)
+      return (int) value;
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+    return (exponent - SUB_BITS + 1) * SUB_COUNT + sub;
+  }
+
+  protected static long upperBound(int bucket) {
+    if (bucket < SUB_COUNT)
+      return bucket;
+    int exponent = bucket / SUB_COUNT + SUB_BITS - 1;
+    int sub = bucket % SUB_COUNT;
+    long width = 1L << (exponent - SUB_BITS);
+    return ((SUB_COUNT + sub) * width) + width - 1;
+  }
+
+  @Override
+  public String toString() {
+    return "count=" + count + ", mean=" + (long) meanTime() + "ns, max=" + max + "ns, p99=" + percentile(0.99)
+        + "ns, missed=" + missed + ", maxLateness=" + maxLateness + "ns";
+  }
+}
@@ -0,0 +1,43 @@
+/**************************************************************************************
+ * fpstiming_tree
+ * Copyright (c) 2014-2017 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ **************************************************************************************/
+
+package remixlab.fpstiming;
+
+/**
+ * Interface defining how a {@link remixlab.fpstiming.TimingHandler} estimates its frame
+ * rate from the measured frame times. The estimated {@link #framePeriod()} is what
+ * sequential timers use to predict whether they should be triggered at the current
+ * frame or at the next one (see {@link remixlab.fpstiming.SeqTimer#trigggered()}).
+ *
+ * @see remixlab.fpstiming.EmaEstimator
+ * @see remixlab.fpstiming.WindowedEstimator
+ */
+public interface FrameRateEstimator {
+  /**
+   * Feeds the estimator with the duration, in nanoseconds, of the last frame.
+   */
+  void update(long frameNanos);
+
+  /**
+   * Returns the estimated frame rate, in frames per second.
+   */
+  float frameRate();
+
+  /**
+   * Returns the estimated duration of the next frame, in nanoseconds. Should be cheap,
+   * since it's queried by every sequential timer at every frame.
+   */
+  long framePeriod();
+
+  /**
+   * Forgets all the measured frame times.
+   */
+  void reset();
+}
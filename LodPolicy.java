@@ -0,0 +1,31 @@
+/**************************************************************************************
+ * fpstiming_tree
+ * Copyright (c) 2014-2017 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ **************************************************************************************/
+
+package remixlab.fpstiming;
+
+/**
+ * Interface defining the level of detail (LOD) policy of the animated objects of a
+ * {@link remixlab.fpstiming.TimingHandler}: the application scores how important each
+ * animated object currently is (e.g., from its distance to the camera, its visibility or
+ * whether it has the focus) and, when the frame rate drops, the handler stretches the
+ * animation period of the least important ones, or suspends them, until it recovers.
+ *
+ * @see remixlab.fpstiming.TimingHandler#setLodPolicy(LodPolicy)
+ */
+public interface LodPolicy {
+  /**
+   * Returns the current importance of the animated object, within {@code [0,1]}:
+   * {@code 1} for objects that should always run at their full rate (e.g., visible and
+   * close ones) and {@code 0} for objects that may be suspended first (e.g., off-screen
+   * ones). Should be cheap, since it's queried for every started animated object at
+   * every LOD update.
+   */
+  float importance(Animator animator);
+}
@@ -0,0 +1,60 @@
+/**************************************************************************************
+ * fpstiming_tree
+ * Copyright (c) 2014-2017 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ **************************************************************************************/
+
+package remixlab.fpstiming;
+
+/**
+ * Virtual {@link remixlab.fpstiming.Clock} which only moves when told to. Useful to drive
+ * a {@link remixlab.fpstiming.TimingHandler} deterministically, e.g., from tests or
+ * offline simulations.
+ */
+public class ManualClock implements Clock {
+  protected long time;
+
+  /**
+   * Constructs a manual clock starting at time {@code 0}.
+   */
+  public ManualClock() {
+    this(0);
+  }
+
+  /**
+   * Constructs a manual clock starting at the given time (in nanoseconds).
+   */
+  public ManualClock(long nanos) {
+    time = nanos;
+  }
+
+  @Override
+  public long nanoTime() {
+    return time;
+  }
+
+  /**
+   * Sets the current time in nanoseconds.
+   */
+  public void setNanoTime(long nanos) {
+    time = nanos;
+  }
+
+  /**
+   * Advances the clock by the given amount of nanoseconds.
+   */
+  public void advance(long nanos) {
+    time += nanos;
+  }
+
+  /**
+   * Advances the clock by the given amount of milliseconds.
+   */
+  public void advanceMillis(long millis) {
+    time += millis * 1000000L;
+  }
+}
@@ -0,0 +1,22 @@
+/**************************************************************************************
+ * fpstiming_tree
+ * Copyright (c) 2014-2017 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ **************************************************************************************/
+
+package remixlab.fpstiming;
+
+/**
+ * Default {@link remixlab.fpstiming.Clock} implemented on top of the monotonic
+ * {@code System.nanoTime()}.
+ */
+public class NanoClock implements Clock {
+  @Override
+  public long nanoTime() {
+    return System.nanoTime();
+  }
+}
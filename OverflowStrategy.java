@@ -0,0 +1,33 @@
+/**************************************************************************************
+ * fpstiming_tree
+ * Copyright (c) 2014-2017 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ **************************************************************************************/
+
+package remixlab.fpstiming;
+
+/**
+ * Strategies defining what a {@link remixlab.fpstiming.TickPublisher} does with a tick
+ * when the buffer of a subscriber which doesn't keep up is full.
+ *
+ * @see remixlab.fpstiming.TickPublisher#setOverflowStrategy(OverflowStrategy)
+ */
+public enum OverflowStrategy {
+  /**
+   * The new tick is dropped, so that the subscriber gets the oldest ticks (default).
+   */
+  DROP,
+  /**
+   * The oldest buffered tick is dropped to make room for the new one, so that the
+   * subscriber gets the latest ticks.
+   */
+  LATEST,
+  /**
+   * The buffer grows without bounds, so that no tick is ever dropped.
+   */
+  BUFFER
+}
@@ -0,0 +1,41 @@
+/**************************************************************************************
+ * fpstiming_tree
+ * Copyright (c) 2014-2017 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ **************************************************************************************/
+
+package remixlab.fpstiming;
+
+/**
+ * Policies defining what a periodic {@link remixlab.fpstiming.SeqTimer} does when the
+ * frame rate is too low to trigger it once per period, i.e., when it overruns.
+ *
+ * @see remixlab.fpstiming.SeqTimer#setOverrunPolicy(OverrunPolicy)
+ */
+public enum OverrunPolicy {
+  /**
+   * The timer is triggered at most once per frame and missed ticks are delayed, so that
+   * the timer falls behind wall-clock time under load (default).
+   */
+  DRIFT,
+  /**
+   * The timer is triggered once and the missed ticks are dropped, so that the timer stays
+   * in phase with wall-clock time.
+   */
+  SKIP,
+  /**
+   * Like {@link #SKIP}, but the number of coalesced ticks is reported by
+   * {@link remixlab.fpstiming.SeqTimer#ticks()}, so that the task may account for them.
+   */
+  COALESCE,
+  /**
+   * The timer is triggered once per missed tick within the same frame, up to
+   * {@link remixlab.fpstiming.SeqTimer#maxBurst()} times. Remaining ticks are caught up
+   * in the following frames.
+   */
+  CATCH_UP
+}
@@ -0,0 +1,161 @@
+/**************************************************************************************
+ * fpstiming_tree
+ * Copyright (c) 2014-2017 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ **************************************************************************************/
+
+package remixlab.fpstiming;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parallel timers are multi-threaded timers which execute their {@link #timingTask()}
+ * on the {@link remixlab.fpstiming.TimingHandler#executor()} shared by all the parallel
+ * timers of the handler, rather than from within
+ * {@link remixlab.fpstiming.TimingHandler#handle()}.
+ * <p>
+ * <b>Note:</b> The task callback method is invoked from a worker thread, so it should
+ * synchronize any state it shares with the main event loop.
+ *
+ * @see remixlab.fpstiming.TimingHandler#parallelizeTimers()
+ */
+public class ParallelTimer implements Timer {
+  protected Taskable task;
+  protected TimingHandler handler;
+  protected boolean runOnlyOnce;
+  protected volatile ScheduledFuture<?> future;
+  // period is kept in nanoseconds
+  private long prd;
+
+  /**
+   * Defines a parallel (multi-threaded) timer.
+   *
+   * @param h timing handler owner
+   */
+  public ParallelTimer(TimingHandler h) {
+    this(h, false, null);
+  }
+
+  /**
+   * Defines a parallel (multi-threaded) timer.
+   *
+   * @param h          timing handler owner
+   * @param singleShot
+   */
+  public ParallelTimer(TimingHandler h, boolean singleShot) {
+    this(h, singleShot, null);
+  }
+
+  public ParallelTimer(TimingHandler h, Taskable t) {
+    this(h, false, t);
+  }
+
+  public ParallelTimer(TimingHandler h, boolean singleShot, Taskable t) {
+    handler = h;
+    runOnlyOnce = singleShot;
+    task = t;
+    create();
+  }
+
+  @Override
+  public Taskable timingTask() {
+    return task;
+  }
+
+  @Override
+  public void cancel() {
+    stop();
+    if (task instanceof TimingTask)
+      handler.unregisterTask((TimingTask) task);
+  }
+
+  @Override
+  public void create() {
+    stop();
+  }
+
+  @Override
+  public void run(long period) {
+    setPeriod(period);
+    run();
+  }
+
+  /**
+   * Calls {@link #setPeriod(long, TimeUnit)} followed by {@link #run()}.
+   */
+  public void run(long period, TimeUnit unit) {
+    setPeriod(period, unit);
+    run();
+  }
+
+  @Override
+  public void run() {
+    if (prd <= 0 || task == null)
+      return;
+    stop();
+    Runnable command = new Runnable() {
+      @Override
+      public void run() {
+        task.execute();
+      }
+    };
+    if (runOnlyOnce)
+      future = handler.executor().schedule(command, prd, TimeUnit.NANOSECONDS);
+    else
+      future = handler.executor().scheduleAtFixedRate(command, prd, prd, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public void stop() {
+    ScheduledFuture<?> f = future;
+    if (f != null) {
+      f.cancel(false);
+      future = null;
+    }
+  }
+
+  @Override
+  public boolean isActive() {
+    ScheduledFuture<?> f = future;
+    return f != null && !f.isDone();
+  }
+
+  @Override
+  public long period() {
+    return TimeUnit.NANOSECONDS.toMillis(prd);
+  }
+
+  /**
+   * Returns the timer period in the given time unit.
+   */
+  public long period(TimeUnit unit) {
+    return unit.convert(prd, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public void setPeriod(long period) {
+    setPeriod(period, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Defines the timer period in the given time unit.
+   */
+  public void setPeriod(long period, TimeUnit unit) {
+    prd = unit.toNanos(period);
+  }
+
+  @Override
+  public boolean isSingleShot() {
+    return runOnlyOnce;
+  }
+
+  @Override
+  public void setSingleShot(boolean singleShot) {
+    runOnlyOnce = singleShot;
+  }
+}
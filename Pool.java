@@ -0,0 +1,154 @@
+/**************************************************************************************
+ * fpstiming_tree
+ * Copyright (c) 2014-2017 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ **************************************************************************************/
+
+package remixlab.fpstiming;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.RandomAccess;
+
+/**
+ * Indexed list used by the {@link remixlab.fpstiming.TimingHandler} to hold its
+ * {@link remixlab.fpstiming.TimingHandler#tasks()} and
+ * {@link remixlab.fpstiming.TimingHandler#animators()}, among others. Internal use.
+ * <p>
+ * Elements are kept in a contiguous array for cache-friendly iteration, together with
+ * their slot index which gives {@code O(1)} {@link #add(Object)}, {@link #remove(Object)},
+ * {@link #contains(Object)} and {@link #indexOf(Object)}. Membership is defined by
+ * identity and elements are unique: adding an element twice has no effect.
+ * <p>
+ * The slot index is kept in an identity map, unless {@link #slot(Object)} and
+ * {@link #setSlot(Object, int)} are overridden to keep it in the elements themselves
+ * (as the pools of started animated objects and busy children do), so that adding and
+ * removing elements doesn't allocate. That's only possible for elements that can't be
+ * held by two such pools at once.
+ * <p>
+ * <b>Note:</b> Removing an element moves the last element into its slot (swap-remove),
+ * so that iteration order is not insertion order once elements have been removed.
+ */
+class Pool<E> extends AbstractList<E> implements RandomAccess {
+  protected Object[] elements;
+  protected int size;
+  protected IdentityHashMap<Object, Integer> slots;
+
+  /**
+   * Constructs an empty pool.
+   */
+  Pool() {
+    elements = new Object[16];
+  }
+
+  /**
+   * Returns the slot index kept for the element, or {@code -1} if there's none. The
+   * returned index is checked against the pool, so that it may be a stale one.
+   */
+  protected int slot(Object element) {
+    Integer slot = slots == null ? null : slots.get(element);
+    return slot == null ? -1 : slot.intValue();
+  }
+
+  /**
+   * Keeps the slot index of the element, {@code -1} meaning it was removed.
+   */
+  protected void setSlot(Object element, int slot) {
+    if (slots == null)
+      slots = new IdentityHashMap<Object, Integer>();
+    if (slot < 0)
+      slots.remove(element);
+    else
+      slots.put(element, slot);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public E get(int index) {
+    if (index >= size)
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    return (E) elements[index];
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Appends the element to the pool, unless it's already contained.
+   *
+   * @return {@code true} if the element was added and {@code false} otherwise
+   */
+  @Override
+  public boolean add(E element) {
+    if (indexOf(element) >= 0)
+      return false;
+    if (size == elements.length)
+      elements = Arrays.copyOf(elements, size << 1);
+    setSlot(element, size);
+    elements[size++] = element;
+    modCount++;
+    return true;
+  }
+
+  /**
+   * Removes the element at the given slot, moving the last element into it.
+   */
+  @SuppressWarnings("unchecked")
+  @Override
+  public E remove(int index) {
+    if (index >= size)
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    E removed = (E) elements[index];
+    setSlot(removed, -1);
+    int last = --size;
+    if (index != last) {
+      elements[index] = elements[last];
+      setSlot(elements[index], index);
+    }
+    elements[last] = null;
+    modCount++;
+    return removed;
+  }
+
+  @Override
+  public boolean remove(Object element) {
+    int slot = indexOf(element);
+    if (slot < 0)
+      return false;
+    remove(slot);
+    return true;
+  }
+
+  @Override
+  public boolean contains(Object element) {
+    return indexOf(element) >= 0;
+  }
+
+  @Override
+  public int indexOf(Object element) {
+    int slot = slot(element);
+    return slot >= 0 && slot < size && elements[slot] == element ? slot : -1;
+  }
+
+  @Override
+  public int lastIndexOf(Object element) {
+    return indexOf(element);
+  }
+
+  @Override
+  public void clear() {
+    for (int i = 0; i < size; i++) {
+      setSlot(elements[i], -1);
+      elements[i] = null;
+    }
+    size = 0;
+    modCount++;
+  }
+}
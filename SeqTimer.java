@@ -10,6 +10,8 @@
 
 package remixlab.fpstiming;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * Sequential timers are single-threaded timers handled by a TimingHandler.
  */
@@ -18,9 +20,26 @@ public class SeqTimer implements Timer {
   protected TimingHandler handler;
   protected boolean active;
   protected boolean runOnlyOnce;
+  protected OverrunPolicy overrun = OverrunPolicy.DRIFT;
+  protected int maxBurst = 4;
+  private long ticks;
+  private long lateness;
+  private long pausedAt;
+  private boolean paused;
+  private int burst;
   private long counter;
+  // period and start time are kept in nanoseconds
   private long prd;
   private long startTime;
+  // slot in the handler timer queue (-1 when not queued)
+  int queueIndex = -1;
+  // handler timer store holding the counter, period, start time and active flag
+  TimerStore store;
+  int slot = -1;
+  // whether or not the timer task is registered at the handler timer pool
+  boolean pooled;
+  // slot in the handler pooled timers, in registration order (see ActiveTimers)
+  int poolIndex = -1;
 
   /**
    * Defines a single shot sequential (single-threaded) timer.
@@ -66,13 +85,41 @@ public class SeqTimer implements Timer {
   protected boolean execute() {
     boolean result = trigggered();
     if (result) {
-      timingTask().execute();
-      if (runOnlyOnce)
+      invoke();
+      if (runOnlyOnce) {
         inactivate();
+        handler.expireTimer(this);
+      } else
+        while (catchUp())
+          invoke();
     }
     return result;
   }
 
+  /**
+   * Executes the {@link #timingTask()} callback, instrumenting it when the handler
+   * metrics are enabled (see {@link remixlab.fpstiming.TimingHandler#enableMetrics()}).
+   */
+  protected void invoke() {
+    TimingMetrics metrics = handler.metrics;
+    TimingRecorder recorder = handler.recorder;
+    if (metrics == null && recorder == null) {
+      timingTask().execute();
+      return;
+    }
+    long start = System.nanoTime();
+    timingTask().execute();
+    long time = System.nanoTime() - start;
+    handler.frameTaskNanos += time;
+    if (recorder != null)
+      recorder.fired(timingTask(), time);
+    if (metrics != null) {
+      ExecutionStats stats = metrics.stats(timingTask());
+      stats.record(time);
+      stats.recordLateness(lateness, lateness >= prd());
+    }
+  }
+
   @Override
   public void cancel() {
     stop();
@@ -90,24 +137,144 @@ public class SeqTimer implements Timer {
     run();
   }
 
+  /**
+   * Calls {@link #setPeriod(long, TimeUnit)} followed by {@link #run()}. Use it to run
+   * timers with sub-millisecond periods.
+   */
+  public void run(long period, TimeUnit unit) {
+    setPeriod(period, unit);
+    run();
+  }
+
   @Override
   public void run() {
-    if (prd <= 0)
+    if (prd() <= 0)
       return;
-    inactivate();
-    counter = 1;
-    active = true;
-    startTime = System.currentTimeMillis();
+    paused = false;
+    setCounter(1);
+    setStartTime(handler.startTime());
+    setActive(true);
+    handler.updateTimer(this);
   }
 
   @Override
   public void stop() {
+    paused = false;
     inactivate();
   }
 
+  /**
+   * Stops the timer keeping its phase, so that it may be {@link #resume()}d as if it was
+   * never stopped, but for the time it was paused. Does nothing if the timer is not
+   * active.
+   */
+  public void pause() {
+    if (!isActive())
+      return;
+    pausedAt = handler.now();
+    inactivate();
+    paused = true;
+  }
+
+  /**
+   * Resumes the timer after {@link #pause()}, shifting its phase by the time it was
+   * paused.
+   */
+  public void resume() {
+    if (!paused)
+      return;
+    paused = false;
+    setStartTime(startTime() + handler.startTime() - pausedAt);
+    setActive(true);
+    handler.updateTimer(this);
+  }
+
+  /**
+   * Returns {@code true} if the timer is paused and {@code false} otherwise.
+   *
+   * @see #pause()
+   */
+  public boolean isPaused() {
+    return paused;
+  }
+
+  /**
+   * Takes the setup and the phase of the given timer. Used to swap timers without
+   * resetting their phase.
+   */
+  void adopt(SeqTimer other) {
+    setPeriod(other.prd(), TimeUnit.NANOSECONDS);
+    runOnlyOnce = other.runOnlyOnce;
+    overrun = other.overrun;
+    maxBurst = other.maxBurst;
+    setCounter(other.counter());
+    setStartTime(other.startTime());
+    setActive(other.isActive());
+    paused = other.paused;
+    pausedAt = other.pausedAt;
+  }
+
+  /**
+   * Moves the counter, period, start time and active flag of the timer into the given
+   * slot of the handler timer store, so that the timer becomes a view of it.
+   */
+  void attach(TimerStore s, int i) {
+    s.counter[i] = counter;
+    s.period[i] = prd;
+    s.startTime[i] = startTime;
+    s.active[i] = active;
+    store = s;
+    slot = i;
+  }
+
+  /**
+   * Moves the state of the timer back from the handler timer store.
+   */
+  void detach() {
+    counter = store.counter[slot];
+    prd = store.period[slot];
+    startTime = store.startTime[slot];
+    active = store.active[slot];
+    store = null;
+    slot = -1;
+  }
+
+  private long counter() {
+    return store == null ? counter : store.counter[slot];
+  }
+
+  private void setCounter(long c) {
+    if (store == null)
+      counter = c;
+    else
+      store.counter[slot] = c;
+  }
+
+  private long prd() {
+    return store == null ? prd : store.period[slot];
+  }
+
+  private long startTime() {
+    return store == null ? startTime : store.startTime[slot];
+  }
+
+  private void setStartTime(long time) {
+    if (store == null)
+      startTime = time;
+    else
+      store.startTime[slot] = time;
+  }
+
+  private void setActive(boolean a) {
+    if (store == null)
+      active = a;
+    else
+      store.active[slot] = a;
+  }
+
   @Override
   public boolean isActive() {
-    return active;
+    return store == null ? active : store.active[slot];
   }
 
   // others
@@ -116,7 +283,18 @@ public class SeqTimer implements Timer {
    * Deactivates the SeqTimer.
    */
   public void inactivate() {
-    active = false;
+    setActive(false);
+    if (pooled)
+      handler.updateTimer(this);
+  }
+
+  /**
+   * Returns the time (in nanoseconds, as given by the handler
+   * {@link remixlab.fpstiming.TimingHandler#clock()}) at which the timer is next due. Only
+   * meaningful when the timer {@link #isActive()}.
+   */
+  public long deadline() {
+    return startTime() + counter() * prd();
   }
 
   /**
@@ -126,17 +304,19 @@ public class SeqTimer implements Timer {
    * (see {@link remixlab.fpstiming.TimingHandler#handle()}).
    */
   public boolean trigggered() {
-    if (!active)
+    if (!isActive())
       return false;
 
-    long elapsedTime = System.currentTimeMillis() - startTime;
+    long prd = prd();
+    long counter = counter();
+    long elapsedTime = handler.frameTime() - startTime();
 
-    float timePerFrame = (1 / handler.frameRate()) * 1000;
+    long timePerFrame = handler.frameStep();
     long threshold = counter * prd;
 
     boolean result = false;
     if (threshold >= elapsedTime) {
-      long diff = elapsedTime + (long) timePerFrame - threshold;
+      long diff = elapsedTime + timePerFrame - threshold;
       if (diff >= 0) {
         if ((threshold - elapsedTime) < diff) {
           result = true;
@@ -147,7 +327,18 @@ public class SeqTimer implements Timer {
     }
 
     if (result) {
-      counter++;
+      lateness = elapsedTime - threshold;
+      ticks = 1;
+      burst = 1;
+      if (overrun == OverrunPolicy.SKIP || overrun == OverrunPolicy.COALESCE) {
+        long behind = elapsedTime / prd - counter + 1;
+        if (behind > 1) {
+          counter += behind - 1;
+          if (overrun == OverrunPolicy.COALESCE)
+            ticks = behind;
+        }
+      }
+      setCounter(++counter);
       // if (prd < timePerFrame)
       // System.out.println("Your current frame rate (~" + handler.frameRate() +
       // " fps) is not high enough " + "to run the timer and reach the specified
@@ -165,14 +356,103 @@ public class SeqTimer implements Timer {
     return result;
   }
 
+  /**
+   * Returns {@code true} if the timer should be triggered again within the current frame
+   * to catch up a missed tick, according to the {@link OverrunPolicy#CATCH_UP} policy.
+   * <p>
+   * <b>Note:</b> You should not call this method since it's done by the timing handler
+   * (see {@link remixlab.fpstiming.TimingHandler#handle()}).
+   */
+  protected boolean catchUp() {
+    if (overrun != OverrunPolicy.CATCH_UP || !isActive() || burst >= maxBurst)
+      return false;
+    long counter = counter();
+    if (counter * prd() > handler.frameTime() - startTime())
+      return false;
+    setCounter(counter + 1);
+    burst++;
+    return true;
+  }
+
+  /**
+   * Returns the number of periods accounted by the last time the timer was triggered.
+   * It's greater than {@code 1} only when missed ticks were coalesced (see
+   * {@link OverrunPolicy#COALESCE}).
+   */
+  public long ticks() {
+    return ticks;
+  }
+
+  /**
+   * Returns the time (in nanoseconds) elapsed between the deadline and the frame at which
+   * the timer was last triggered. It's negative when the timer was triggered ahead of its
+   * deadline, which happens when the deadline is closer to that frame than to the next
+   * one.
+   */
+  public long lateness() {
+    return lateness;
+  }
+
+  /**
+   * Returns the policy followed when the timer overruns. Default is
+   * {@link OverrunPolicy#DRIFT}.
+   */
+  public OverrunPolicy overrunPolicy() {
+    return overrun;
+  }
+
+  /**
+   * Defines the policy followed when the timer overruns.
+   *
+   * @see #overrunPolicy()
+   */
+  public void setOverrunPolicy(OverrunPolicy policy) {
+    overrun = policy;
+  }
+
+  /**
+   * Returns the maximum number of times the timer may be triggered within a single frame
+   * when its overrun policy is {@link OverrunPolicy#CATCH_UP}. Default is {@code 4}.
+   */
+  public int maxBurst() {
+    return maxBurst;
+  }
+
+  /**
+   * Defines the maximum number of times the timer may be triggered within a single frame.
+   *
+   * @see #maxBurst()
+   */
+  public void setMaxBurst(int burst) {
+    if (burst > 0)
+      maxBurst = burst;
+  }
+
   @Override
   public long period() {
-    return prd;
+    return TimeUnit.NANOSECONDS.toMillis(prd());
+  }
+
+  /**
+   * Returns the timer period in the given time unit.
+   */
+  public long period(TimeUnit unit) {
+    return unit.convert(prd(), TimeUnit.NANOSECONDS);
   }
 
   @Override
   public void setPeriod(long period) {
-    prd = period;
+    setPeriod(period, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Defines the timer period in the given time unit.
+   */
+  public void setPeriod(long period, TimeUnit unit) {
+    if (store == null)
+      prd = unit.toNanos(period);
+    else
+      store.period[slot] = unit.toNanos(period);
   }
 
   @Override
@@ -0,0 +1,151 @@
+/**************************************************************************************
+ * fpstiming_tree
+ * Copyright (c) 2014-2017 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ **************************************************************************************/
+
+package remixlab.fpstiming;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Named group of tasks which may be run, stopped, paused and resumed together. Groups
+ * are obtained from {@link remixlab.fpstiming.TimingHandler#taskGroup(String)}, and their
+ * bulk operations share a single timestamp (see
+ * {@link remixlab.fpstiming.TimingHandler#runTasks(java.util.Collection, long)}).
+ * <p>
+ * Belonging to a group doesn't register a task, see
+ * {@link remixlab.fpstiming.TimingHandler#registerTasks(java.util.Collection)}.
+ */
+public class TaskGroup {
+  protected String name;
+  protected TimingHandler handler;
+  protected Pool<TimingTask> tasks;
+  protected Pool<TimingTask> suspended;
+  protected boolean paused;
+
+  /**
+   * Constructs an empty group. Use
+   * {@link remixlab.fpstiming.TimingHandler#taskGroup(String)} instead.
+   */
+  protected TaskGroup(TimingHandler h, String n) {
+    handler = h;
+    name = n;
+    tasks = new Pool<TimingTask>();
+    suspended = new Pool<TimingTask>();
+  }
+
+  /**
+   * Returns the group name.
+   */
+  public String name() {
+    return name;
+  }
+
+  /**
+   * Returns the tasks of the group, as an unmodifiable view (see
+   * {@link #add(TimingTask)} and {@link #remove(TimingTask)}).
+   */
+  public List<TimingTask> tasks() {
+    return Collections.unmodifiableList(tasks);
+  }
+
+  /**
+   * Adds the task to the group.
+   */
+  public void add(TimingTask task) {
+    tasks.add(task);
+  }
+
+  /**
+   * Removes the task from the group.
+   */
+  public void remove(TimingTask task) {
+    tasks.remove(task);
+    suspended.remove(task);
+  }
+
+  /**
+   * Returns {@code true} if the task belongs to the group and {@code false} otherwise.
+   */
+  public boolean contains(TimingTask task) {
+    return tasks.contains(task);
+  }
+
+  /**
+   * Runs all the tasks of the group periodically, with the given period in milliseconds.
+   */
+  public void run(long period) {
+    suspended.clear();
+    paused = false;
+    handler.runTasks(tasks, period);
+  }
+
+  /**
+   * Stops all the tasks of the group.
+   */
+  public void stop() {
+    suspended.clear();
+    paused = false;
+    handler.stopTasks(tasks);
+  }
+
+  /**
+   * Stops the active tasks of the group, remembering them so that they can be
+   * {@link #resume()}d. Sequential timers keep their phase (see
+   * {@link remixlab.fpstiming.SeqTimer#pause()}).
+   */
+  public void pause() {
+    if (paused)
+      return;
+    paused = true;
+    for (int i = 0; i < tasks.size(); i++) {
+      TimingTask task = tasks.get(i);
+      if (task.isActive()) {
+        suspended.add(task);
+        if (task.timer() instanceof SeqTimer)
+          ((SeqTimer) task.timer()).pause();
+        else
+          task.stop();
+      }
+    }
+  }
+
+  /**
+   * Resumes the tasks that were active when the group was {@link #pause()}d. Sequential
+   * timers resume their phase, and the others are run again with their previous period
+   * and single shot setting. Sequential timers that were stopped or run again meanwhile
+   * are left as they are.
+   */
+  public void resume() {
+    if (!paused)
+      return;
+    paused = false;
+    handler.beginBatch();
+    try {
+      for (int i = 0; i < suspended.size(); i++) {
+        Timer timer = suspended.get(i).timer();
+        if (timer instanceof SeqTimer) {
+          if (((SeqTimer) timer).isPaused())
+            ((SeqTimer) timer).resume();
+        } else if (timer != null && !timer.isActive())
+          timer.run();
+      }
+    } finally {
+      handler.endBatch();
+    }
+    suspended.clear();
+  }
+
+  /**
+   * Returns {@code true} if the group is paused and {@code false} otherwise.
+   */
+  public boolean isPaused() {
+    return paused;
+  }
+}
@@ -0,0 +1,248 @@
+/**************************************************************************************
+ * fpstiming_tree
+ * Copyright (c) 2014-2017 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ **************************************************************************************/
+
+package remixlab.fpstiming;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Execution order of the tasks of a {@link remixlab.fpstiming.TimingHandler} timer pool,
+ * according to their priorities and dependencies (see
+ * {@link remixlab.fpstiming.TimingTask#setPriority(int)} and
+ * {@link remixlab.fpstiming.TimingTask#addDependency(TimingTask)}).
+ * <p>
+ * Only the ordered tasks (those having a priority or dependencies) and their
+ * dependencies are ranked, by a topological sort of the dependencies in which, among the
+ * tasks that are ready, the one with the highest priority comes first. All the other
+ * tasks share a single default rank, placed among the ranked ones as a priority
+ * {@code 0} task without dependencies would be, ties going to the ranked tasks. Ranks
+ * are only recomputed after a priority or a dependency changed, or an ordered task was
+ * registered.
+ * <p>
+ * At each frame the handler collects the due timers (see {@link #add(SeqTimer)}) and
+ * executes them by rank (see {@link #get(int)}), ties keeping their collection order.
+ * Only the timers of ranked tasks are sorted, so that the cost doesn't depend on the
+ * number of tasks without priority nor dependencies.
+ */
+class TaskOrder {
+  protected Pool<TimingTask> tasks;
+  protected ArrayList<TimingTask> ranked;
+  protected int defaultRank;
+  protected boolean dirty;
+  // due timers of the current frame: those of ranked tasks, sorted by their keys (rank
+  // and collection index), and the others, which keep their collection order
+  protected SeqTimer[] due;
+  protected long[] keys;
+  protected int dueCount;
+  protected SeqTimer[] others;
+  protected int othersCount;
+  protected int split;
+
+  TaskOrder() {
+    tasks = new Pool<TimingTask>();
+    ranked = new ArrayList<TimingTask>();
+    due = new SeqTimer[16];
+    keys = new long[16];
+    others = new SeqTimer[16];
+    dirty = true;
+  }
+
+  /**
+   * Collects the due timer.
+   */
+  void add(SeqTimer timer) {
+    Taskable task = timer.timingTask();
+    if (task instanceof TimingTask && ((TimingTask) task).rank >= 0) {
+      if (dueCount == due.length) {
+        due = Arrays.copyOf(due, dueCount << 1);
+        keys = Arrays.copyOf(keys, dueCount << 1);
+      }
+      keys[dueCount] = (long) ((TimingTask) task).rank << 32 | dueCount;
+      due[dueCount++] = timer;
+    } else {
+      if (othersCount == others.length)
+        others = Arrays.copyOf(others, othersCount << 1);
+      others[othersCount++] = timer;
+    }
+  }
+
+  /**
+   * Sorts the collected timers by rank. Only those of ranked tasks are actually sorted.
+   *
+   * @see #get(int)
+   */
+  void sort() {
+    Arrays.sort(keys, 0, dueCount);
+    split = 0;
+    while (split < dueCount && (int) (keys[split] >> 32) < defaultRank)
+      split++;
+  }
+
+  /**
+   * Returns the number of collected timers.
+   */
+  int size() {
+    return dueCount + othersCount;
+  }
+
+  /**
+   * Returns the {@code i}-th collected timer in execution order, once {@link #sort()}ed.
+   */
+  SeqTimer get(int i) {
+    if (i < split)
+      return due[(int) keys[i]];
+    if (i < split + othersCount)
+      return others[i - split];
+    return due[(int) keys[i - othersCount]];
+  }
+
+  /**
+   * Clears the collected timers.
+   */
+  void clear() {
+    Arrays.fill(due, 0, dueCount, null);
+    Arrays.fill(others, 0, othersCount, null);
+    dueCount = othersCount = 0;
+  }
+
+  /**
+   * Resets the ranks of the ranked tasks, once the order is discarded.
+   */
+  void dispose() {
+    for (int i = 0; i < ranked.size(); i++)
+      ranked.get(i).rank = -1;
+    ranked.clear();
+    tasks.clear();
+  }
+
+  /**
+   * Recomputes the ranks, if needed.
+   */
+  void update() {
+    if (!dirty)
+      return;
+    dirty = false;
+    for (int i = 0; i < ranked.size(); i++)
+      ranked.get(i).rank = -1;
+    ranked.clear();
+    // nodes: the ordered tasks and (transitively) their dependencies, indexed by rank
+    for (int i = 0; i < tasks.size(); i++)
+      node(tasks.get(i));
+    for (int i = 0; i < ranked.size(); i++)
+      if (ranked.get(i).dependencies != null)
+        for (TimingTask dependency : ranked.get(i).dependencies)
+          node(dependency);
+    // the last node stands for all the other tasks
+    int n = ranked.size() + 1;
+    int[] priorities = new int[n];
+    int[] indegree = new int[n];
+    // successors of node i: successors[first[i]] to successors[first[i + 1] - 1]
+    int[] first = new int[n + 1];
+    for (int i = 0; i < n - 1; i++) {
+      TimingTask task = ranked.get(i);
+      priorities[i] = task.priority();
+      if (task.dependencies != null)
+        for (TimingTask dependency : task.dependencies) {
+          indegree[i]++;
+          first[dependency.rank + 1]++;
+        }
+    }
+    for (int i = 0; i < n; i++)
+      first[i + 1] += first[i];
+    int[] successors = new int[first[n]];
+    int[] next = Arrays.copyOf(first, n);
+    for (int i = 0; i < n - 1; i++) {
+      TimingTask task = ranked.get(i);
+      if (task.dependencies != null)
+        for (TimingTask dependency : task.dependencies)
+          successors[next[dependency.rank]++] = i;
+    }
+    // Kahn's algorithm, releasing the highest priority task left to break cycles
+    int[] heap = new int[n];
+    int heapSize = 0;
+    boolean[] placed = new boolean[n];
+    int[] order = new int[n];
+    for (int i = 0; i < n; i++)
+      if (indegree[i] == 0)
+        heapSize = push(heap, heapSize, i, priorities);
+    for (int r = 0; r < n; ) {
+      if (heapSize == 0) {
+        int release = -1;
+        for (int i = 0; i < n; i++)
+          if (!placed[i] && (release < 0 || before(i, release, priorities)))
+            release = i;
+        heapSize = push(heap, heapSize, release, priorities);
+      }
+      int i = heap[0];
+      heapSize = pop(heap, heapSize, priorities);
+      if (placed[i])
+        continue;
+      placed[i] = true;
+      order[r++] = i;
+      for (int k = first[i]; k < first[i + 1]; k++)
+        if (--indegree[successors[k]] == 0 && !placed[successors[k]])
+          heapSize = push(heap, heapSize, successors[k], priorities);
+    }
+    for (int r = 0; r < n; r++)
+      if (order[r] == n - 1)
+        defaultRank = r;
+      else
+        ranked.get(order[r]).rank = r;
+  }
+
+  /**
+   * Adds the task to the nodes of the dependency graph, unless it's already there.
+   */
+  protected void node(TimingTask task) {
+    if (task.rank < 0) {
+      task.rank = ranked.size();
+      ranked.add(task);
+    }
+  }
+
+  /**
+   * Returns {@code true} if node {@code a} should be released before node {@code b}:
+   * higher priorities first, and then lower nodes.
+   */
+  protected static boolean before(int a, int b, int[] priorities) {
+    return priorities[a] != priorities[b] ? priorities[a] > priorities[b] : a < b;
+  }
+
+  /**
+   * Pushes the node into the binary heap of ready nodes, returning the new heap size.
+   */
+  protected static int push(int[] heap, int size, int node, int[] priorities) {
+    int i = size++;
+    while (i > 0 && before(node, heap[(i - 1) >> 1], priorities)) {
+      heap[i] = heap[(i - 1) >> 1];
+      i = (i - 1) >> 1;
+    }
+    heap[i] = node;
+    return size;
+  }
+
+  /**
+   * Pops the first node from the binary heap of ready nodes, returning the new heap size.
+   */
+  protected static int pop(int[] heap, int size, int[] priorities) {
+    int node = heap[--size];
+    int i = 0;
+    for (int child; (child = 2 * i + 1) < size; i = child) {
+      if (child + 1 < size && before(heap[child + 1], heap[child], priorities))
+        child++;
+      if (!before(heap[child], node, priorities))
+        break;
+      heap[i] = heap[child];
+    }
+    heap[i] = node;
+    return size;
+  }
+}
@@ -0,0 +1,388 @@
+/**************************************************************************************
+ * fpstiming_tree
+ * Copyright (c) 2014-2017 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ **************************************************************************************/
+
+package remixlab.fpstiming;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Timing task publishing its ticks as a {@link java.util.concurrent.Flow.Publisher}, so
+ * that slow consumers (network fan-out, logging, ...) may follow the timer without
+ * blocking the frame loop. Run it as any other task (e.g., {@code publisher.run(100)});
+ * running it with a period shorter than the frame period makes it publish once per
+ * frame. A {@link remixlab.fpstiming.Taskable} may also be wrapped, so that its ticks
+ * are published after it's executed.
+ * <p>
+ * Each subscriber has its own demand and its own buffer of undelivered ticks, which are
+ * delivered by the publisher executor (default is the common fork-join pool). Publishing
+ * never blocks the handler: when a subscriber buffer is full the tick is handled
+ * according to the subscriber {@link remixlab.fpstiming.OverflowStrategy}, and when
+ * the max batch of a subscriber is greater than {@code 1}, a tick arriving while the
+ * previous one is still undelivered is merged into it (see {@link Tick#count()}), so
+ * that a lagging subscriber gets fewer signals.
+ * <p>
+ * <b>Note:</b> This class requires Java 9 or later, since it builds upon
+ * {@link java.util.concurrent.Flow}. It's the only one of the library that does and no
+ * other class refers to it, so it may be left out (together with
+ * {@link remixlab.fpstiming.OverflowStrategy}) when building for Java 8.
+ */
+public class TickPublisher extends TimingTask implements Flow.Publisher<TickPublisher.Tick> {
+  protected TimingHandler handler;
+  protected Taskable task;
+  protected Executor executor;
+  protected CopyOnWriteArrayList<TickSubscription> subscriptions;
+  protected OverflowStrategy overflow = OverflowStrategy.DROP;
+  protected int bufferSize = 256;
+  protected int maxBatch = 1;
+  protected volatile boolean closed;
+
+  /**
+   * A published tick.
+   */
+  public static final class Tick {
+    final long frame;
+    final long time;
+    final long count;
+
+    Tick(long frame, long time, long count) {
+      this.frame = frame;
+      this.time = time;
+      this.count = count;
+    }
+
+    /**
+     * Returns the handler {@link remixlab.fpstiming.TimingHandler#frameCount()} at which
+     * the (last) tick took place.
+     */
+    public long frame() {
+      return frame;
+    }
+
+    /**
+     * Returns the handler {@link remixlab.fpstiming.TimingHandler#frameTime()} at which
+     * the (last) tick took place.
+     */
+    public long time() {
+      return time;
+    }
+
+    /**
+     * Returns the number of timer periods accounted by this signal, which is greater than
+     * {@code 1} when ticks were batched or coalesced by the timer (see
+     * {@link remixlab.fpstiming.SeqTimer#ticks()}).
+     */
+    public long count() {
+      return count;
+    }
+
+    @Override
+    public String toString() {
+      return "Tick[frame=" + frame + ", time=" + time + ", count=" + count + "]";
+    }
+  }
+
+  /**
+   * Constructs a publisher registered at the given handler, delivering its ticks with the
+   * common fork-join pool.
+   */
+  public TickPublisher(TimingHandler h) {
+    this(h, null, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Constructs a publisher registered at the given handler, publishing the ticks of the
+   * given task after it's executed.
+   */
+  public TickPublisher(TimingHandler h, Taskable t) {
+    this(h, t, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Constructs a publisher registered at the given handler, publishing the ticks of the
+   * given task (may be {@code null}) and delivering them with the given executor.
+   */
+  public TickPublisher(TimingHandler h, Taskable t, Executor e) {
+    handler = h;
+    task = t;
+    executor = e;
+    subscriptions = new CopyOnWriteArrayList<TickSubscription>();
+    handler.registerTask(this);
+  }
+
+  @Override
+  public void execute() {
+    if (task != null)
+      task.execute();
+    long count = timer() instanceof SeqTimer ? ((SeqTimer) timer()).ticks() : 1;
+    publish(new Tick(handler.frameCount(), handler.frameTime(), Math.max(count, 1)));
+  }
+
+  /**
+   * Offers the tick to all the subscribers. Never blocks.
+   */
+  protected void publish(Tick tick) {
+    if (closed)
+      return;
+    for (TickSubscription subscription : subscriptions)
+      subscription.offer(tick);
+  }
+
+  /**
+   * Subscribes with the current overflow strategy, buffer size and max batch.
+   *
+   * @see #subscribe(java.util.concurrent.Flow.Subscriber, OverflowStrategy, int, int)
+   */
+  @Override
+  public void subscribe(Flow.Subscriber<? super Tick> subscriber) {
+    subscribe(subscriber, overflow, bufferSize, maxBatch);
+  }
+
+  /**
+   * Subscribes with the given overflow strategy, buffer size (number of undelivered
+   * signals) and max batch (number of ticks that may be merged into a single signal).
+   */
+  public void subscribe(Flow.Subscriber<? super Tick> subscriber, OverflowStrategy strategy, int size, int batch) {
+    if (subscriber == null)
+      throw new NullPointerException();
+    TickSubscription subscription = new TickSubscription(subscriber, strategy, Math.max(size, 1), Math.max(batch, 1));
+    subscriptions.add(subscription);
+    subscriber.onSubscribe(subscription);
+    if (closed)
+      subscription.complete();
+  }
+
+  /**
+   * Stops publishing and completes all the subscribers once their buffered ticks are
+   * delivered.
+   */
+  public void close() {
+    closed = true;
+    for (TickSubscription subscription : subscriptions)
+      subscription.complete();
+  }
+
+  /**
+   * Returns {@code true} if the publisher is closed and {@code false} otherwise.
+   *
+   * @see #close()
+   */
+  public boolean isClosed() {
+    return closed;
+  }
+
+  /**
+   * Returns the number of current subscribers.
+   */
+  public int subscriberCount() {
+    return subscriptions.size();
+  }
+
+  /**
+   * Returns the overflow strategy of the subsequent subscriptions. Default is
+   * {@link OverflowStrategy#DROP}.
+   */
+  public OverflowStrategy overflowStrategy() {
+    return overflow;
+  }
+
+  /**
+   * Defines the overflow strategy of the subsequent subscriptions.
+   *
+   * @see #overflowStrategy()
+   */
+  public void setOverflowStrategy(OverflowStrategy strategy) {
+    overflow = strategy;
+  }
+
+  /**
+   * Returns the buffer size of the subsequent subscriptions. Default is {@code 256}.
+   */
+  public int bufferSize() {
+    return bufferSize;
+  }
+
+  /**
+   * Defines the buffer size of the subsequent subscriptions.
+   *
+   * @see #bufferSize()
+   */
+  public void setBufferSize(int size) {
+    if (size > 0)
+      bufferSize = size;
+  }
+
+  /**
+   * Returns the max number of ticks merged into a single signal for the subsequent
+   * subscriptions. Default is {@code 1}, i.e., no batching.
+   */
+  public int maxBatch() {
+    return maxBatch;
+  }
+
+  /**
+   * Defines the max number of ticks merged into a single signal for the subsequent
+   * subscriptions.
+   *
+   * @see #maxBatch()
+   */
+  public void setMaxBatch(int batch) {
+    if (batch > 0)
+      maxBatch = batch;
+  }
+
+  /**
+   * Subscription buffering the undelivered ticks of a subscriber, which are delivered by
+   * the publisher executor as the subscriber requests them.
+   */
+  public class TickSubscription implements Flow.Subscription, Runnable {
+    protected Flow.Subscriber<? super Tick> subscriber;
+    protected OverflowStrategy strategy;
+    protected int capacity;
+    protected int batch;
+    protected ArrayDeque<Tick> buffer;
+    protected long dropped;
+    protected AtomicLong demand;
+    protected AtomicInteger wip;
+    protected volatile boolean cancelled;
+    protected volatile boolean done;
+    protected Throwable error;
+
+    protected TickSubscription(Flow.Subscriber<? super Tick> s, OverflowStrategy o, int size, int b) {
+      subscriber = s;
+      strategy = o;
+      capacity = size;
+      batch = b;
+      buffer = new ArrayDeque<Tick>();
+      demand = new AtomicLong();
+      wip = new AtomicInteger();
+    }
+
+    /**
+     * Buffers the tick according to the overflow strategy and schedules its delivery.
+     */
+    protected void offer(Tick tick) {
+      synchronized (this) {
+        if (cancelled)
+          return;
+        Tick last = buffer.peekLast();
+        if (last != null && last.count + tick.count <= batch) {
+          buffer.pollLast();
+          buffer.add(new Tick(tick.frame, tick.time, last.count + tick.count));
+        } else if (buffer.size() < capacity || strategy == OverflowStrategy.BUFFER)
+          buffer.add(tick);
+        else if (strategy == OverflowStrategy.LATEST) {
+          dropped += buffer.poll().count;
+          buffer.add(tick);
+        } else {
+          dropped += tick.count;
+          return;
+        }
+      }
+      signal();
+    }
+
+    /**
+     * Returns the number of ticks dropped because the subscriber didn't keep up.
+     */
+    public synchronized long dropped() {
+      return dropped;
+    }
+
+    /**
+     * Returns the number of buffered (undelivered) signals.
+     */
+    public synchronized int buffered() {
+      return buffer.size();
+    }
+
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        error = new IllegalArgumentException("Non-positive request: " + n);
+        done = true;
+      } else
+        for (;;) {
+          long current = demand.get();
+          long next = current + n < 0 ? Long.MAX_VALUE : current + n;
+          if (demand.compareAndSet(current, next))
+            break;
+        }
+      signal();
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+      subscriptions.remove(this);
+      synchronized (this) {
+        buffer.clear();
+      }
+    }
+
+    protected void complete() {
+      done = true;
+      signal();
+    }
+
+    protected void signal() {
+      if (wip.getAndIncrement() == 0)
+        try {
+          executor.execute(this);
+        } catch (RejectedExecutionException e) {
+          cancel();
+        }
+    }
+
+    /**
+     * Delivers the buffered ticks the subscriber asked for. Internal use.
+     */
+    @Override
+    public void run() {
+      int missed = 1;
+      for (;;) {
+        if (error != null) {
+          if (!cancelled) {
+            cancel();
+            subscriber.onError(error);
+          }
+        } else
+          while (!cancelled && demand.get() > 0) {
+            Tick tick;
+            synchronized (this) {
+              tick = buffer.poll();
+            }
+            if (tick == null)
+              break;
+            if (demand.get() != Long.MAX_VALUE)
+              demand.decrementAndGet();
+            try {
+              subscriber.onNext(tick);
+            } catch (Throwable t) {
+              cancel();
+            }
+          }
+        if (!cancelled && done && buffered() == 0) {
+          cancel();
+          subscriber.onComplete();
+        }
+        missed = wip.addAndGet(-missed);
+        if (missed == 0)
+          break;
+      }
+    }
+  }
+}
@@ -0,0 +1,159 @@
+/**************************************************************************************
+ * fpstiming_tree
+ * Copyright (c) 2014-2017 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ **************************************************************************************/
+
+package remixlab.fpstiming;
+
+import java.util.Arrays;
+
+/**
+ * Indexed binary min-heap of sequential timers ordered by their next deadline (see
+ * {@link SeqTimer#deadline()}). Each timer stores its own heap slot so that it can be
+ * removed or re-positioned in {@code O(log n)} whenever it is run or stopped.
+ * <p>
+ * Used by the {@link remixlab.fpstiming.TimingHandler} when its timer queue is enabled
+ * (see {@link remixlab.fpstiming.TimingHandler#enableTimerQueue()}) so that
+ * {@link remixlab.fpstiming.TimingHandler#handle()} only visits the timers that may be
+ * triggered at the current frame.
+ */
+class TimerQueue {
+  protected SeqTimer[] heap;
+  protected int size;
+
+  TimerQueue() {
+    heap = new SeqTimer[16];
+  }
+
+  /**
+   * Returns the number of queued timers.
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Returns {@code true} if there are no queued timers.
+   */
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Returns {@code true} if the timer is currently queued.
+   */
+  boolean contains(SeqTimer timer) {
+    return timer.queueIndex >= 0;
+  }
+
+  /**
+   * Returns the timer with the earliest deadline without removing it, or {@code null} if
+   * the queue is empty.
+   */
+  SeqTimer peek() {
+    return size == 0 ? null : heap[0];
+  }
+
+  /**
+   * Removes and returns the timer with the earliest deadline, or {@code null} if the
+   * queue is empty.
+   */
+  SeqTimer poll() {
+    if (size == 0)
+      return null;
+    SeqTimer result = heap[0];
+    removeAt(0);
+    return result;
+  }
+
+  /**
+   * Queues the timer, or re-positions it if it was already queued (e.g., after its
+   * deadline changed).
+   */
+  void add(SeqTimer timer) {
+    if (timer.queueIndex >= 0) {
+      siftUp(timer.queueIndex);
+      siftDown(timer.queueIndex);
+      return;
+    }
+    if (size == heap.length)
+      heap = Arrays.copyOf(heap, size << 1);
+    heap[size] = timer;
+    timer.queueIndex = size;
+    siftUp(size++);
+  }
+
+  /**
+   * Removes the timer from the queue. Does nothing if the timer is not queued.
+   */
+  void remove(SeqTimer timer) {
+    if (timer.queueIndex >= 0)
+      removeAt(timer.queueIndex);
+  }
+
+  /**
+   * Removes all queued timers.
+   */
+  void clear() {
+    for (int i = 0; i < size; i++) {
+      heap[i].queueIndex = -1;
+      heap[i] = null;
+    }
+    size = 0;
+  }
+
+  protected void removeAt(int i) {
+    SeqTimer removed = heap[i];
+    removed.queueIndex = -1;
+    int last = --size;
+    if (i != last) {
+      heap[i] = heap[last];
+      heap[i].queueIndex = i;
+      heap[last] = null;
+      siftUp(i);
+      siftDown(heap[i].queueIndex);
+    } else
+      heap[last] = null;
+  }
+
+  protected void siftUp(int i) {
+    SeqTimer timer = heap[i];
+    long deadline = timer.deadline();
+    while (i > 0) {
+      int parent = (i - 1) >>> 1;
+      SeqTimer p = heap[parent];
+      if (p.deadline() <= deadline)
+        break;
+      heap[i] = p;
+      p.queueIndex = i;
+      i = parent;
+    }
+    heap[i] = timer;
+    timer.queueIndex = i;
+  }
+
+  protected void siftDown(int i) {
+    SeqTimer timer = heap[i];
+    long deadline = timer.deadline();
+    int half = size >>> 1;
+    while (i < half) {
+      int child = (i << 1) + 1;
+      SeqTimer c = heap[child];
+      int right = child + 1;
+      if (right < size && heap[right].deadline() < c.deadline())
+        c = heap[child = right];
+      if (deadline <= c.deadline())
+        break;
+      heap[i] = c;
+      c.queueIndex = i;
+      i = child;
+    }
+    heap[i] = timer;
+    timer.queueIndex = i;
+  }
+}
@@ -0,0 +1,112 @@
+/**************************************************************************************
+ * fpstiming_tree
+ * Copyright (c) 2014-2017 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ **************************************************************************************/
+
+package remixlab.fpstiming;
+
+import java.util.Arrays;
+
+/**
+ * Structure of arrays holding the state of the pooled sequential timers of a
+ * {@link remixlab.fpstiming.TimingHandler}: their start time, period, counter and active
+ * flag are kept in parallel primitive arrays indexed by timer slot, while each
+ * {@link remixlab.fpstiming.SeqTimer} remains as a view of its slot. Slots are kept
+ * dense by moving the last timer into the slot of a removed one.
+ * <p>
+ * Used by the handler when its timer store is enabled (see
+ * {@link remixlab.fpstiming.TimingHandler#enableTimerStore()}) so that
+ * {@link remixlab.fpstiming.TimingHandler#handle()} finds the triggered timers with a
+ * tight scan over the arrays, without dereferencing the timers that are not due.
+ */
+class TimerStore {
+  long[] startTime;
+  long[] period;
+  long[] counter;
+  boolean[] active;
+  SeqTimer[] timers;
+  int[] due;
+  int size;
+
+  TimerStore() {
+    startTime = new long[16];
+    period = new long[16];
+    counter = new long[16];
+    active = new boolean[16];
+    timers = new SeqTimer[16];
+    due = new int[16];
+  }
+
+  /**
+   * Returns the number of stored timers.
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Moves the state of the timer into the store. Does nothing if it's already stored.
+   */
+  void add(SeqTimer timer) {
+    if (timer.store != null)
+      return;
+    if (size == timers.length) {
+      int length = size << 1;
+      startTime = Arrays.copyOf(startTime, length);
+      period = Arrays.copyOf(period, length);
+      counter = Arrays.copyOf(counter, length);
+      active = Arrays.copyOf(active, length);
+      timers = Arrays.copyOf(timers, length);
+      due = new int[length];
+    }
+    timers[size] = timer;
+    timer.attach(this, size++);
+  }
+
+  /**
+   * Moves the state of the timer back into it. Does nothing if it's not stored.
+   */
+  void remove(SeqTimer timer) {
+    if (timer.store != this)
+      return;
+    int slot = timer.slot;
+    timer.detach();
+    int last = --size;
+    if (slot != last) {
+      startTime[slot] = startTime[last];
+      period[slot] = period[last];
+      counter[slot] = counter[last];
+      active[slot] = active[last];
+      timers[slot] = timers[last];
+      timers[slot].slot = slot;
+    }
+    timers[last] = null;
+  }
+
+  /**
+   * Removes all the stored timers.
+   */
+  void clear() {
+    while (size > 0)
+      remove(timers[size - 1]);
+  }
+
+  /**
+   * Collects into {@link #due} the slots of the active timers whose deadline is earlier
+   * than the given limit, and returns their number. A timer is
+   * {@link SeqTimer#trigggered()} at time {@code t} with a frame step {@code s} iff its
+   * deadline is earlier than {@code t + (s + 1) / 2}.
+   */
+  int collect(long limit) {
+    int n = 0;
+    for (int i = 0; i < size; i++)
+      if (active[i] && startTime[i] + counter[i] * period[i] < limit)
+        due[n++] = i;
+    return n;
+  }
+}
@@ -10,10 +10,24 @@
 
 package remixlab.fpstiming;
 
+import java.io.OutputStream;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 
 /**
- * A timing handler holds a {@link #timerPool()} and an {@link #animatorPool()}. The timer
+ * A timing handler holds a {@link #tasks()} and an {@link #animators()}. The timer
  * pool are all the tasks scheduled to be performed in the future (one single time or
  * periodically). The animation pool are all the objects that implement an animation
  * callback function. For an introduction to FPSTiming please refer to
@@ -21,123 +35,1727 @@ import java.util.ArrayList;
  */
 public class TimingHandler {
   // T i m e r P o o l
-  protected ArrayList<TimingTask> tPool;
-  protected long frameRateLastMillis;
+  protected Pool<TimingTask> tPool;
+  protected ActiveTimers activeTimers;
+  protected Clock clock;
+  protected long frameTime;
+  protected double timeScale = 1;
+  protected boolean paused;
+  protected long fastForwardStep;
+  protected long clockTime;
+  protected long frameRateLastNanos;
   public float frameRate;
+  protected FrameRateEstimator estimator;
   protected long fCount;
+  protected TimerQueue tQueue;
+  protected ArrayList<SeqTimer> tDue;
+  protected TimerStore tStore;
+  protected ScheduledExecutorService executor;
+  protected boolean autoDispose;
+  protected ArrayDeque<DelayedTask> idleTasks;
+  protected TimingMetrics metrics;
+  protected TimingRecorder recorder;
+  protected long frameTaskNanos;
+  protected long frameStart;
+  protected long frameBudget;
+  protected boolean overBudget;
+  protected int taskCursor;
+  protected TaskOrder taskOrder;
+  protected int animatorCursor;
 
   // A N I M A T I O N
-  protected ArrayList<Animator> aPool;
+  protected Pool<Animator> aPool;
+  protected Pool<AnimatorObject> activeAnimators;
+  protected Pool<Animator> otherAnimators;
+
+  protected Pool<Animator> pinned;
+  protected HashMap<String, TaskGroup> groups;
+  protected Thread batchThread;
+  protected long batchTime;
+  protected int batchDepth;
+  protected AnimatorShards shards;
+  protected int parallelThreshold = 1024;
+
+  // H i e r a r c h y
+  protected TimingHandler parent;
+  protected Pool<TimingHandler> children;
+  protected Pool<TimingHandler> busyChildren;
+  // slot in the busy children of the parent (see Pool)
+  int busySlot = -1;
+  protected TimingHandler[] visiting;
+  protected volatile boolean busy;
+  protected AtomicBoolean wakeRequested;
+  protected int throttle = 1;
+  protected int throttleCount;
+  protected Clock ownClock;
+  protected FrameRateEstimator ownEstimator;
+
+  // L O D
+  protected LodPolicy lodPolicy;
+  protected long lodTarget = 16666667;
+  protected int lodInterval = 30;
+  protected int lodLevels = 3;
+  protected int lodCount;
+  protected float lodPressure;
+  protected boolean lodOverBudget;
+
+  // P e n d i n g  r e g i s t r a t i o n s
+  protected ConcurrentLinkedQueue<PoolOp> pending;
+  protected ConcurrentLinkedQueue<AsyncTask<?>> completions;
+  protected int completionLimit;
+  protected volatile Thread frameThread;
+  protected boolean handling;
+  protected volatile boolean awaiting;
+  protected long spinThreshold = 1000000;
+
+  /**
+   * Pool operation deferred to the beginning of the next {@link #handle()}.
+   *
+   * @see #isDeferred()
+   */
+  protected static class PoolOp {
+    static final int REGISTER_TASK = 0;
+    static final int UNREGISTER_TASK = 1;
+    static final int REGISTER_ANIMATOR = 2;
+    static final int UNREGISTER_ANIMATOR = 3;
+    static final int UPDATE_TIMER = 4;
+    static final int UPDATE_ANIMATOR = 5;
+    static final int ADD_CHILD = 6;
+    static final int REMOVE_CHILD = 7;
+    static final int WAKE_CHILD = 8;
+    static final int UPDATE_ORDER = 9;
+    static final int REPLACE_TIMER = 10;
+
+    final int type;
+    final Object target;
+    final Timer timer;
+
+    PoolOp(int type, Object target, Timer timer) {
+      this.type = type;
+      this.target = target;
+      this.timer = timer;
+    }
+  }
+
+  /**
+   * Main constructor.
+   */
+  public TimingHandler() {
+    this(new NanoClock());
+  }
+
+  /**
+   * Constructor that sets the handler {@link #clock()}, e.g., a
+   * {@link remixlab.fpstiming.ManualClock} to drive the handler deterministically.
+   */
+  public TimingHandler(Clock clock) {
+    this.clock = clock;
+    // the creating thread owns the pools until handle() is called from another one
+    frameThread = Thread.currentThread();
+    fCount = 0;
+    estimator = new EmaEstimator();
+    frameRate = estimator.frameRate();
+    frameTime = clock.nanoTime();
+    clockTime = frameTime;
+    frameRateLastNanos = frameTime;
+    // the pools updated at every registration, run or stop keep their slots in the
+    // elements, so that they don't allocate
+    tPool = new Pool<TimingTask>();
+    activeTimers = new ActiveTimers();
+    aPool = new Pool<Animator>();
+    activeAnimators = new Pool<AnimatorObject>() {
+      @Override
+      protected int slot(Object element) {
+        return element instanceof AnimatorObject ? ((AnimatorObject) element).activeSlot : -1;
+      }
+
+      @Override
+      protected void setSlot(Object element, int slot) {
+        ((AnimatorObject) element).activeSlot = slot;
+      }
+    };
+    otherAnimators = new Pool<Animator>();
+    pinned = new Pool<Animator>();
+    groups = new HashMap<String, TaskGroup>();
+    children = new Pool<TimingHandler>();
+    busyChildren = new Pool<TimingHandler>() {
+      @Override
+      protected int slot(Object element) {
+        return element instanceof TimingHandler ? ((TimingHandler) element).busySlot : -1;
+      }
+
+      @Override
+      protected void setSlot(Object element, int slot) {
+        ((TimingHandler) element).busySlot = slot;
+      }
+    };
+    visiting = new TimingHandler[0];
+    wakeRequested = new AtomicBoolean();
+    pending = new ConcurrentLinkedQueue<PoolOp>();
+    completions = new ConcurrentLinkedQueue<AsyncTask<?>>();
+    idleTasks = new ArrayDeque<DelayedTask>();
+  }
+
+  /**
+   * Constructor that takes and registers an animation object.
+   */
+  public TimingHandler(Animator aObject) {
+    this();
+    this.registerAnimator(aObject);
+  }
+
+  /**
+   * Handler's main method. It should be called from within your main event loop. It does
+   * the following: 1. Recomputes the frame rate; 2. Executes the all timers (those in the
+   * {@link #tasks()}) callback functions; and, 3. Performs all the animated objects
+   * (those in the {@link #animators()}) animation functions.
+   * <p>
+   * Registrations requested from other threads, or from within the callbacks run by this
+   * method, are applied at the beginning of the next call (see {@link #isDeferred()}).
+   * <p>
+   * When a {@link #frameBudget()} is set, the timers and animated objects that are still
+   * to be visited once it's exhausted are deferred to the next call.
+   * <p>
+   * While the handler {@link #isPaused()}, steps 2 and 3 are skipped.
+   */
+  public void handle() {
+    TimingMetrics m = metrics;
+    frameStart = m == null && frameBudget <= 0 ? 0 : System.nanoTime();
+    frameThread = Thread.currentThread();
+    updateFrameRate();
+    if (recorder != null)
+      recorder.beginFrame(frameTime, frameRate, frameStep());
+    drainPending();
+    handling = true;
+    if (!completions.isEmpty())
+      drainCompletions();
+    if (overBudget)
+      lodOverBudget = true;
+    overBudget = false;
+    try {
+      frameTaskNanos = 0;
+      long animatorStart = 0;
+      // timers overdue when paused are triggered right after resume()
+      if (!paused) {
+        if (tQueue != null)
+          handleTimerQueue();
+        else if (taskOrder != null)
+          handleOrderedTimerPool();
+        else if (tStore != null)
+          handleTimerStore();
+        else
+          handleTimerPool();
+        // Animation
+        animatorStart = m == null ? 0 : System.nanoTime();
+        if (lodPolicy != null && ++lodCount >= lodInterval)
+          updateLod();
+        if (shards != null && aPool.size() >= parallelThreshold)
+          shards.animate();
+        else
+          handleAnimatorPool(m);
+      } else if (m != null)
+        animatorStart = System.nanoTime();
+      if (m != null) {
+        long end = System.nanoTime();
+        m.recordFrame(end - frameStart, frameTaskNanos, end - animatorStart);
+      }
+      handleChildren();
+    } finally {
+      handling = false;
+    }
+  }
+
+  /**
+   * Executes the triggered sequential timers of the {@link #tasks()}, in registration
+   * order. Only the active ones are visited, since the handler flags them whenever a timer
+   * is run or stopped. When a {@link #frameBudget()} is set and it gets exhausted, the
+   * next call resumes from the first timer that was not visited, so that no timer starves.
+   */
+  protected void handleTimerPool() {
+    ActiveTimers timers = activeTimers;
+    int start = taskCursor < timers.size ? taskCursor : 0;
+    for (int i = timers.next(start); i >= 0; i = timers.next(i + 1)) {
+      SeqTimer timer = timers.timers[i];
+      if (timer.task != null)
+        if (timer.execute() && isOverBudget()) {
+          taskCursor = i + 1;
+          return;
+        }
+    }
+    for (int i = timers.next(0); i >= 0 && i < start; i = timers.next(i + 1)) {
+      SeqTimer timer = timers.timers[i];
+      if (timer.task != null)
+        if (timer.execute() && isOverBudget()) {
+          taskCursor = i + 1;
+          return;
+        }
+    }
+  }
+
+  /**
+   * Executes the triggered sequential timers held in the timer store (see
+   * {@link #enableTimerStore()}). Only the timers found to be due by the scan over the
+   * store arrays are visited. Follows the same {@link #frameBudget()} policy as
+   * {@link #handleTimerPool()}, taking the store slots as the visiting order.
+   */
+  protected void handleTimerStore() {
+    TimerStore store = tStore;
+    int n = store.collect(frameTime() + (frameStep() + 1) / 2);
+    if (n == 0)
+      return;
+    int j = 0;
+    while (j < n && store.due[j] < taskCursor)
+      j++;
+    if (j == n)
+      j = 0;
+    for (int k = 0; k < n; k++) {
+      SeqTimer timer = store.timers[store.due[j]];
+      if (++j == n)
+        j = 0;
+      if (timer.timingTask() != null)
+        if (timer.execute() && isOverBudget()) {
+          taskCursor = store.due[j];
+          return;
+        }
+    }
+  }
+
+  /**
+   * Executes the triggered sequential timers of the {@link #tasks()} according to the
+   * task priorities and dependencies (see {@link remixlab.fpstiming.TaskOrder}). Only the
+   * active timers that are due at the current frame are visited and ordered. When the
+   * {@link #frameBudget()} gets exhausted, the next call visits the active timers from the
+   * one following the last executed timer, so that tasks sharing the same rank rotate.
+   */
+  protected void handleOrderedTimerPool() {
+    TaskOrder o = taskOrder;
+    o.update();
+    ActiveTimers timers = activeTimers;
+    int start = taskCursor < timers.size ? taskCursor : 0;
+    long limit = frameTime() + (frameStep() + 1) / 2;
+    for (int i = timers.next(start); i >= 0; i = timers.next(i + 1))
+      collect(o, timers.timers[i], limit);
+    for (int i = timers.next(0); i >= 0 && i < start; i = timers.next(i + 1))
+      collect(o, timers.timers[i], limit);
+    o.sort();
+    for (int i = 0; i < o.size(); i++) {
+      SeqTimer timer = o.get(i);
+      if (timer.execute() && isOverBudget()) {
+        taskCursor = timer.poolIndex + 1;
+        break;
+      }
+    }
+    o.clear();
+  }
+
+  /**
+   * Collects the timer into the task order if it's due before the given limit.
+   */
+  protected void collect(TaskOrder o, SeqTimer timer, long limit) {
+    if (timer.task != null && timer.isActive() && timer.deadline() < limit)
+      o.add(timer);
+  }
+
+  /**
+   * Internal use. Called when the priority or dependencies of a task changed.
+   */
+  protected void invalidateTaskOrder(TimingTask task) {
+    if (isDeferred())
+      defer(new PoolOp(PoolOp.UPDATE_ORDER, task, null));
+    else {
+      drainPending();
+      syncTaskOrder(task);
+    }
+  }
+
+  /**
+   * Lists the registered task among the ordered ones if it has a priority or
+   * dependencies, and removes it from them otherwise, so that the
+   * {@link remixlab.fpstiming.TaskOrder} is recomputed at the next frame. The order is
+   * discarded once no task is ordered.
+   */
+  protected void syncTaskOrder(TimingTask task) {
+    if (task.isOrdered() && tPool.contains(task)) {
+      if (taskOrder == null)
+        taskOrder = new TaskOrder();
+      taskOrder.tasks.add(task);
+      taskOrder.dirty = true;
+    } else if (taskOrder != null && (taskOrder.tasks.remove(task) || task.rank >= 0)) {
+      if (taskOrder.tasks.isEmpty())
+        discardTaskOrder();
+      else
+        taskOrder.dirty = true;
+    }
+  }
+
+  /**
+   * Discards the task order, so that tasks are executed as if none of them had a
+   * priority or dependencies.
+   */
+  protected void discardTaskOrder() {
+    taskOrder.dispose();
+    taskOrder = null;
+  }
+
+  /**
+   * Executes the task if its sequential timer was triggered. Returns {@code true} if the
+   * task was executed.
+   */
+  protected boolean execute(TimingTask task) {
+    if (task.timer() != null)
+      if (task.timer() instanceof SeqTimer)
+        if (((SeqTimer) task.timer()).timingTask() != null)
+          return ((SeqTimer) task.timer()).execute();
+    return false;
+  }
+
+  /**
+   * Performs the animation of the started objects of the {@link #animators()}. Follows
+   * the same {@link #frameBudget()} policy as {@link #handleTimerPool()}: even if the
+   * timers exhausted the budget, the next triggered object (in visiting order) is
+   * animated.
+   */
+  protected void handleAnimatorPool(TimingMetrics m) {
+    Pool<AnimatorObject> objects = activeAnimators;
+    int active = objects.size();
+    int size = active + otherAnimators.size();
+    if (animatorCursor >= size)
+      animatorCursor = 0;
+    boolean measured = m != null || recorder != null;
+    for (int n = 0, i = animatorCursor; n < size; n++) {
+      boolean animated;
+      if (i < active) {
+        AnimatorObject object = objects.get(i);
+        animated = measured ? animate(object, m) : animate(object);
+      } else {
+        Animator aObj = otherAnimators.get(i - active);
+        animated = aObj.animationStarted() && (measured ? animate(aObj, m) : animate(aObj));
+      }
+      if (++i == size)
+        i = 0;
+      if (animated && isOverBudget()) {
+        animatorCursor = i;
+        return;
+      }
+    }
+  }
+
+  /**
+   * Same as {@link #animate(Animator)} but records the animation time into the given
+   * metrics (if any) and the {@link #recorder()} (if any).
+   */
+  protected boolean animate(Animator aObj, TimingMetrics m) {
+    long time = System.nanoTime();
+    boolean animated = animate(aObj);
+    if (animated) {
+      time = System.nanoTime() - time;
+      if (recorder != null)
+        recorder.fired(aObj, time);
+      if (m != null) {
+        ExecutionStats stats = m.stats(aObj);
+        stats.record(time);
+        if (!isFixedTimestep(aObj))
+          stats.recordLateness(aObj.timer().lateness(), aObj.timer().lateness() >= aObj.timer().period(TimeUnit.NANOSECONDS));
+      }
+    }
+    return animated;
+  }
+
+  /**
+   * Sets the frame budget in nanoseconds, i.e., the (wall-clock) time {@link #handle()}
+   * may spend executing timers and animated objects. Once the budget is exhausted the
+   * remaining timers and animated objects are deferred to the next frame (rotating the
+   * visiting order so that none of them starves). Triggered timers that are deferred are
+   * still triggered at the next frame. Pass {@code 0} to disable it (default).
+   * <p>
+   * Note that at least one timer and one animated object are executed per frame, if
+   * triggered.
+   */
+  public void setFrameBudget(long nanos) {
+    frameBudget = Math.max(0, nanos);
+  }
+
+  /**
+   * Returns the frame budget in nanoseconds, or {@code 0} if there's none.
+   *
+   * @see #setFrameBudget(long)
+   */
+  public long frameBudget() {
+    return frameBudget;
+  }
+
+  /**
+   * Returns {@code true} if the last (or current) frame exhausted the
+   * {@link #frameBudget()}, so that some timers or animated objects were deferred.
+   */
+  public boolean budgetExceeded() {
+    return overBudget;
+  }
+
+  /**
+   * Returns {@code true} if the {@link #frameBudget()} of the current frame is exhausted.
+   */
+  protected boolean isOverBudget() {
+    if (frameBudget <= 0)
+      return false;
+    if (!overBudget && System.nanoTime() - frameStart >= frameBudget)
+      overBudget = true;
+    return overBudget;
+  }
+
+  /**
+   * Enables parallel animation on the common fork-join pool, with as many shards as
+   * available processors.
+   *
+   * @see #enableParallelAnimation(ForkJoinPool, int)
+   */
+  public void enableParallelAnimation() {
+    enableParallelAnimation(ForkJoinPool.commonPool(), Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Enables parallel animation: when the {@link #animators()} holds at least
+   * {@link #parallelThreshold()} objects, it's split into {@code shards} contiguous
+   * shards which {@link #handle()} animates in parallel on the given fork-join pool,
+   * waiting for all of them before returning. Each animated object is animated by a
+   * single thread per frame, so that its animations keep their order.
+   * <p>
+   * Objects whose animation must run on the thread calling {@link #handle()} should be
+   * pinned to it (see {@link #pinToMainThread(Animator)}). All the others should not
+   * share unsynchronized state. Note that the {@link #frameBudget()} and per object
+   * {@link #metrics()} don't apply to parallel animation, while the per frame metrics
+   * totals do.
+   *
+   * @see #disableParallelAnimation()
+   */
+  public void enableParallelAnimation(ForkJoinPool pool, int shards) {
+    this.shards = new AnimatorShards(this, pool, shards);
+  }
+
+  /**
+   * Disables parallel animation (default).
+   *
+   * @see #enableParallelAnimation(ForkJoinPool, int)
+   */
+  public void disableParallelAnimation() {
+    shards = null;
+  }
+
+  /**
+   * Returns {@code true} if parallel animation is enabled and {@code false} otherwise.
+   */
+  public boolean isParallelAnimationEnabled() {
+    return shards != null;
+  }
+
+  /**
+   * Returns the minimum number of objects in the {@link #animators()} for parallel
+   * animation to take place. Default is {@code 1024}.
+   */
+  public int parallelThreshold() {
+    return parallelThreshold;
+  }
+
+  /**
+   * Sets the minimum number of objects in the {@link #animators()} for parallel
+   * animation to take place.
+   *
+   * @see #parallelThreshold()
+   */
+  public void setParallelThreshold(int threshold) {
+    parallelThreshold = Math.max(0, threshold);
+  }
+
+  /**
+   * Makes the animated object to be always animated by the thread calling
+   * {@link #handle()}, even when parallel animation is enabled. It should be called from
+   * that thread, outside of the animation callbacks.
+   *
+   * @see #enableParallelAnimation(ForkJoinPool, int)
+   */
+  public void pinToMainThread(Animator object) {
+    pinned.add(object);
+  }
+
+  /**
+   * Undoes {@link #pinToMainThread(Animator)}.
+   */
+  public void unpinFromMainThread(Animator object) {
+    pinned.remove(object);
+  }
+
+  /**
+   * Returns {@code true} if the animated object is pinned to the thread calling
+   * {@link #handle()}.
+   *
+   * @see #pinToMainThread(Animator)
+   */
+  public boolean isPinnedToMainThread(Animator object) {
+    return pinned.contains(object);
+  }
+
+  /**
+   * Performs the animation of the (started) animated object if its timer was triggered,
+   * or its fixed steps when it's an {@link remixlab.fpstiming.AnimatorObject} in fixed
+   * timestep mode. Returns {@code true} if the object was animated.
+   */
+  protected boolean animate(Animator aObj) {
+    if (aObj instanceof AnimatorObject)
+      return animate((AnimatorObject) aObj);
+    if (aObj.timer().trigggered()) {
+      if (!aObj.invokeAnimationHandler()) {
+        aObj.animate();
+        while (aObj.timer().catchUp())
+          aObj.animate();
+      }
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Performs the animation of the (started) animated object, without any type checks.
+   * Returns {@code true} if it was animated.
+   */
+  protected boolean animate(AnimatorObject object) {
+    if (!object.animationStarted() || object.lodFactor == 0)
+      return false;
+    if (object.fixedTimestep)
+      return object.step(frameTime) > 0;
+    SeqTimer timer = object.timer();
+    if (timer.trigggered()) {
+      if (!object.invokeAnimationHandler()) {
+        object.animate();
+        while (timer.catchUp())
+          object.animate();
+      }
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Returns {@code true} if the animated object is an
+   * {@link remixlab.fpstiming.AnimatorObject} in fixed timestep mode.
+   */
+  protected boolean isFixedTimestep(Animator aObj) {
+    return aObj instanceof AnimatorObject && ((AnimatorObject) aObj).fixedTimestep;
+  }
+
+  /**
+   * Enables the collection of execution metrics (see {@link #metrics()}): per task and
+   * animator execution times and deadline lateness, together with per frame totals.
+   * Metrics collection is disabled by default and costs a single null check per callback
+   * when disabled.
+   *
+   * @see #disableMetrics()
+   */
+  public void enableMetrics() {
+    if (metrics == null)
+      metrics = new TimingMetrics();
+  }
+
+  /**
+   * Disables the collection of execution metrics and discards the collected ones.
+   *
+   * @see #enableMetrics()
+   */
+  public void disableMetrics() {
+    metrics = null;
+  }
+
+  /**
+   * Returns {@code true} if execution metrics are collected and {@code false} otherwise.
+   */
+  public boolean isMetricsEnabled() {
+    return metrics != null;
+  }
+
+  /**
+   * Returns the live execution metrics, or {@code null} if they're disabled. See
+   * {@link remixlab.fpstiming.TimingMetrics#snapshot()} to get a copy of them.
+   *
+   * @see #enableMetrics()
+   */
+  public TimingMetrics metrics() {
+    return metrics;
+  }
+
+  /**
+   * Starts recording the timer firings into the given stream (see
+   * {@link remixlab.fpstiming.TimingRecorder}), so that they can be replayed later by a
+   * {@link remixlab.fpstiming.TimingReplay}. Animated objects run in parallel (see
+   * {@link #enableParallelAnimation()}) are not recorded. Stops any previous recording.
+   *
+   * @see #stopRecording()
+   */
+  public TimingRecorder startRecording(OutputStream stream) {
+    stopRecording();
+    recorder = new TimingRecorder(stream, now());
+    return recorder;
+  }
+
+  /**
+   * Stops recording the timer firings and flushes the recorded ones. The recording stream
+   * is left open.
+   *
+   * @see #startRecording(OutputStream)
+   */
+  public void stopRecording() {
+    if (recorder != null)
+      recorder.flush();
+    recorder = null;
+  }
+
+  /**
+   * Returns {@code true} if the timer firings are being recorded and {@code false}
+   * otherwise.
+   */
+  public boolean isRecording() {
+    return recorder != null;
+  }
+
+  /**
+   * Returns the current recorder, or {@code null} if the timer firings are not being
+   * recorded.
+   *
+   * @see #startRecording(OutputStream)
+   */
+  public TimingRecorder recorder() {
+    return recorder;
+  }
+
+  /**
+   * Returns {@code true} if pool modifications requested by the calling thread are
+   * deferred to the beginning of the next {@link #handle()}, i.e., when they are
+   * requested from within {@link #handle()} (e.g., by a task or an animator callback), or
+   * from a thread other than the one calling {@link #handle()} (the one that created the
+   * handler, until {@link #handle()} is first called). Deferred modifications are queued
+   * in a lock-free queue, so that producer threads never block the frame loop.
+   * <p>
+   * Note that {@link #isTaskRegistered(TimingTask)} and
+   * {@link #isAnimatorRegistered(Animator)} only reflect the applied modifications.
+   */
+  public boolean isDeferred() {
+    return handling || isForeignThread();
+  }
+
+  /**
+   * Queues the pool modification to be applied at the beginning of the next
+   * {@link #handle()}, waking up the frame thread if it's waiting in
+   * {@link #awaitNextFrame()}.
+   */
+  protected void defer(PoolOp op) {
+    pending.add(op);
+    wakeUpTree();
+  }
+
+  /**
+   * Wakes up the frame thread (see {@link #wakeUp()}) and, if the handler is an idle
+   * child, asks its parent to visit it at the next frame.
+   */
+  protected void wakeUpTree() {
+    wakeUp();
+    // an idle child isn't visited by its parent, which should then wake it up
+    TimingHandler p = parent;
+    if (p != null && !busy && wakeRequested.compareAndSet(false, true))
+      p.defer(new PoolOp(PoolOp.WAKE_CHILD, this, null));
+  }
+
+  /**
+   * Wakes up the frame thread if it's waiting in {@link #awaitNextFrame()}, so that it
+   * accounts for a timer that was run or a pool modification.
+   */
+  protected void wakeUp() {
+    if (awaiting) {
+      Thread thread = frameThread;
+      if (thread != null && thread != Thread.currentThread())
+        LockSupport.unpark(thread);
+    }
+  }
+
+  /**
+   * Returns the earliest deadline (in nanoseconds, as given by the {@link #clock()})
+   * among the active timers of the {@link #tasks()} and the started objects of the
+   * {@link #animators()}, or {@code Long.MAX_VALUE} if nothing is scheduled.
+   * <p>
+   * It takes constant time for the tasks when the timer queue is enabled (see
+   * {@link #enableTimerQueue()}) and requires a pass over the pools otherwise.
+   */
+  public long nextDeadline() {
+    long result = Long.MAX_VALUE;
+    if (tQueue != null) {
+      SeqTimer timer = tQueue.peek();
+      if (timer != null)
+        result = timer.deadline();
+    } else
+      for (int i = activeTimers.next(0); i >= 0; i = activeTimers.next(i + 1)) {
+        SeqTimer timer = activeTimers.timers[i];
+        if (timer.isActive())
+          result = Math.min(result, timer.deadline());
+      }
+    for (int i = 0; i < activeAnimators.size(); i++)
+      result = Math.min(result, deadline(activeAnimators.get(i)));
+    for (int i = 0; i < otherAnimators.size(); i++)
+      result = Math.min(result, deadline(otherAnimators.get(i)));
+    for (int i = 0; i < busyChildren.size(); i++)
+      result = Math.min(result, busyChildren.get(i).parentDeadline());
+    return result;
+  }
+
+  /**
+   * Returns the {@link #nextDeadline()} of this (child) handler, in the time of its
+   * {@link #parent()}.
+   */
+  protected long parentDeadline() {
+    long deadline = nextDeadline();
+    if (deadline == Long.MAX_VALUE || paused)
+      return Long.MAX_VALUE;
+    if (fastForwardStep > 0)
+      return parent.frameTime;
+    return parent.frameTime + (long) (Math.max(0, deadline - now()) / timeScale);
+  }
+
+  /**
+   * Returns the time at which the animated object is next due, or {@code Long.MAX_VALUE}
+   * if it's not started.
+   */
+  protected long deadline(Animator aObj) {
+    if (!aObj.animationStarted())
+      return Long.MAX_VALUE;
+    if (aObj instanceof AnimatorObject && ((AnimatorObject) aObj).lodFactor == 0)
+      return Long.MAX_VALUE;
+    if (isFixedTimestep(aObj)) {
+      AnimatorObject object = (AnimatorObject) aObj;
+      return object.lastStepTime + object.animationPeriod() * 1000000L - object.accumulator;
+    }
+    if (aObj.timer() != null && aObj.timer().isActive())
+      return aObj.timer().deadline();
+    return Long.MAX_VALUE;
+  }
+
+  /**
+   * Returns the time (in nanoseconds) until the {@link #nextDeadline()}, {@code 0} if it's
+   * already due, or {@code Long.MAX_VALUE} if nothing is scheduled. Main loops may use it
+   * to decide how long to wait before calling {@link #handle()} again.
+   */
+  public long timeToNextDeadline() {
+    long deadline = nextDeadline();
+    if (deadline == Long.MAX_VALUE)
+      return Long.MAX_VALUE;
+    return Math.max(0, deadline - now());
+  }
+
+  /**
+   * Blocks the calling thread until the {@link #nextDeadline()}, so that the main loop
+   * doesn't spin between frames. It parks the thread until {@link #spinThreshold()}
+   * before the deadline, and then spins (yielding) until it. It returns earlier if a pool
+   * modification is requested or a timer is run from another thread, or if the thread is
+   * interrupted (the interrupt status is kept). It blocks until one of those happens when
+   * nothing is scheduled.
+   * <p>
+   * If the {@link #clock()} is a {@link remixlab.fpstiming.ManualClock} it's simply
+   * advanced up to the deadline, so that simulations run as fast as possible. It returns
+   * immediately in fast-forward mode (see {@link #enableFastForward(long)}).
+   */
+  public void awaitNextFrame() {
+    if (fastForwardStep > 0)
+      return;
+    long deadline = nextDeadline();
+    if (clock instanceof ManualClock) {
+      ManualClock manual = (ManualClock) clock;
+      if (!paused && deadline != Long.MAX_VALUE && deadline > now())
+        manual.advance((long) Math.ceil((deadline - now()) / timeScale));
+      return;
+    }
+    frameThread = Thread.currentThread();
+    awaiting = true;
+    try {
+      while (pending.isEmpty() && completions.isEmpty() && !Thread.currentThread().isInterrupted()) {
+        if (deadline == Long.MAX_VALUE || paused) {
+          LockSupport.park(this);
+          deadline = nextDeadline();
+          continue;
+        }
+        long remaining = (long) ((deadline - now()) / timeScale);
+        if (remaining <= 0)
+          break;
+        if (remaining > spinThreshold) {
+          LockSupport.parkNanos(this, remaining - spinThreshold);
+          // a timer may have been run meanwhile
+          deadline = Math.min(deadline, nextDeadline());
+        } else
+          Thread.yield();
+      }
+    } finally {
+      awaiting = false;
+    }
+  }
+
+  /**
+   * Returns the time (in nanoseconds) before a deadline at which
+   * {@link #awaitNextFrame()} stops parking the thread and starts spinning. Default is 1
+   * millisecond.
+   */
+  public long spinThreshold() {
+    return spinThreshold;
+  }
+
+  /**
+   * Sets the time before a deadline at which {@link #awaitNextFrame()} starts spinning.
+   * Lower values save more CPU at the expense of wake-up precision.
+   *
+   * @see #spinThreshold()
+   */
+  public void setSpinThreshold(long nanos) {
+    spinThreshold = Math.max(0, nanos);
+  }
+
+  /**
+   * Applies all the pending pool modifications in the order they were requested. It's
+   * also called before applying a non-deferred modification, so that modifications are
+   * always applied in the order they were requested.
+   *
+   * @see #isDeferred()
+   */
+  protected void drainPending() {
+    PoolOp op;
+    while ((op = pending.poll()) != null)
+      switch (op.type) {
+        case PoolOp.REGISTER_TASK:
+          addTask((TimingTask) op.target, op.timer);
+          break;
+        case PoolOp.UNREGISTER_TASK:
+          removeTask(op.target, op.timer);
+          break;
+        case PoolOp.REGISTER_ANIMATOR:
+          addAnimator((Animator) op.target);
+          break;
+        case PoolOp.UNREGISTER_ANIMATOR:
+          removeAnimator((Animator) op.target);
+          break;
+        case PoolOp.UPDATE_TIMER:
+          syncTimer((SeqTimer) op.timer);
+          break;
+        case PoolOp.UPDATE_ANIMATOR:
+          syncAnimator((AnimatorObject) op.target);
+          break;
+        case PoolOp.ADD_CHILD:
+          attachChild((TimingHandler) op.target);
+          break;
+        case PoolOp.REMOVE_CHILD:
+          detachChild((TimingHandler) op.target);
+          break;
+        case PoolOp.REPLACE_TIMER:
+          swapTimer((TimingTask) op.target, (SeqTimer) op.timer);
+          break;
+        case PoolOp.UPDATE_ORDER:
+          syncTaskOrder((TimingTask) op.target);
+          break;
+        case PoolOp.WAKE_CHILD:
+          TimingHandler child = (TimingHandler) op.target;
+          child.wakeRequested.set(false);
+          if (child.parent == this)
+            child.drainPending();
+          break;
+      }
+    updateBusy();
+  }
+
+  /**
+   * Executes the sequential timers whose deadline falls within the current frame. Only
+   * the timers at the head of the timer queue are visited: a timer may only be
+   * {@link SeqTimer#trigggered()} once its {@link SeqTimer#deadline()} is closer than the
+   * current time plus one frame period. Visited timers that are still active are queued
+   * back once the frame is done, so that each of them is executed at most once per frame.
+   * <p>
+   * When tasks have priorities or dependencies, all the visited timers are executed in
+   * task order (see {@link remixlab.fpstiming.TaskOrder}) rather than in deadline order.
+   * <p>
+   * When the {@link #frameBudget()} is exhausted the remaining timers stay queued, so
+   * that the most overdue ones are visited first at the next frame.
+   */
+  protected void handleTimerQueue() {
+    long horizon = frameTime() + frameStep();
+    SeqTimer timer;
+    if (taskOrder == null)
+      while ((timer = tQueue.peek()) != null && timer.deadline() <= horizon) {
+        tQueue.poll();
+        tDue.add(timer);
+        if (timer.timingTask() != null)
+          if (timer.execute() && isOverBudget())
+            break;
+      }
+    else {
+      TaskOrder o = taskOrder;
+      o.update();
+      while ((timer = tQueue.peek()) != null && timer.deadline() <= horizon) {
+        tDue.add(tQueue.poll());
+        if (timer.timingTask() != null)
+          o.add(timer);
+      }
+      o.sort();
+      for (int i = 0; i < o.size(); i++)
+        if (o.get(i).execute() && isOverBudget())
+          break;
+      o.clear();
+    }
+    for (int i = 0; i < tDue.size(); i++) {
+      timer = tDue.get(i);
+      if (timer.isActive() && timer.pooled)
+        tQueue.add(timer);
+    }
+    tDue.clear();
+  }
+
+  /**
+   * Enables the timer queue: sequential timers are kept sorted by their next deadline so
+   * that {@link #handle()} only visits those that may be triggered at the current frame,
+   * instead of scanning the whole {@link #tasks()}. Useful when there are many
+   * registered tasks but only a few of them are due at each frame.
+   * <p>
+   * Note that tasks due at the same frame are then executed in deadline order rather than
+   * in registration order.
+   *
+   * @see #disableTimerQueue()
+   */
+  public void enableTimerQueue() {
+    if (tQueue != null)
+      return;
+    drainPending();
+    tQueue = new TimerQueue();
+    tDue = new ArrayList<SeqTimer>();
+    for (TimingTask task : tPool)
+      if (task.timer() instanceof SeqTimer && ((SeqTimer) task.timer()).handler == this && task.timer().isActive())
+        tQueue.add((SeqTimer) task.timer());
+  }
+
+  /**
+   * Disables the timer queue so that {@link #handle()} scans the whole
+   * {@link #tasks()} at each frame (default).
+   *
+   * @see #enableTimerQueue()
+   */
+  public void disableTimerQueue() {
+    if (tQueue == null)
+      return;
+    tQueue.clear();
+    tQueue = null;
+    tDue = null;
+  }
+
+  /**
+   * Returns {@code true} if the timer queue is enabled and {@code false} otherwise.
+   *
+   * @see #enableTimerQueue()
+   */
+  public boolean isTimerQueueEnabled() {
+    return tQueue != null;
+  }
+
+  /**
+   * Enables the timer store: the counter, period, start time and active flag of the
+   * pooled sequential timers are moved into parallel primitive arrays held by the handler
+   * (the {@link remixlab.fpstiming.SeqTimer} objects becoming views of them), so that
+   * {@link #handle()} finds the triggered timers with a tight, cache-friendly scan
+   * instead of visiting every task and timer object. Useful for very large pools where
+   * most timers are due at most frames, otherwise see {@link #enableTimerQueue()}.
+   * <p>
+   * The timer queue and task priorities or dependencies, if any, take precedence over
+   * the timer store at {@link #handle()}.
+   *
+   * @see #disableTimerStore()
+   */
+  public void enableTimerStore() {
+    if (tStore != null)
+      return;
+    drainPending();
+    tStore = new TimerStore();
+    for (TimingTask task : tPool)
+      if (task.timer() instanceof SeqTimer && ((SeqTimer) task.timer()).handler == this)
+        tStore.add((SeqTimer) task.timer());
+  }
+
+  /**
+   * Disables the timer store, moving the state of the sequential timers back into them
+   * (default).
+   *
+   * @see #enableTimerStore()
+   */
+  public void disableTimerStore() {
+    if (tStore == null)
+      return;
+    drainPending();
+    tStore.clear();
+    tStore = null;
+  }
+
+  /**
+   * Returns {@code true} if the timer store is enabled and {@code false} otherwise.
+   *
+   * @see #enableTimerStore()
+   */
+  public boolean isTimerStoreEnabled() {
+    return tStore != null;
+  }
+
+  /**
+   * Internal use. Called by the sequential timer when it's run or inactivated, so that
+   * the timer queue (if enabled) reflects its state.
+   */
+  protected void updateTimer(SeqTimer timer) {
+    if (isDeferred())
+      defer(new PoolOp(PoolOp.UPDATE_TIMER, null, timer));
+    else {
+      drainPending();
+      syncTimer(timer);
+    }
+  }
+
+  /**
+   * Internal use. Called by the task when its timer is replaced, so that the previous
+   * timer (if it was pooled) is no longer executed and the new one is pooled instead.
+   *
+   * @see remixlab.fpstiming.TimingTask#setTimer(Timer)
+   */
+  protected void replaceTimer(TimingTask task, SeqTimer previous) {
+    if (isDeferred())
+      defer(new PoolOp(PoolOp.REPLACE_TIMER, task, previous));
+    else {
+      drainPending();
+      swapTimer(task, previous);
+    }
+  }
+
+  /**
+   * Unpools the previous timer of the registered task and pools its current one, if
+   * it's a sequential timer of this handler.
+   */
+  protected void swapTimer(TimingTask task, SeqTimer previous) {
+    if (!previous.pooled || previous == task.timer() || !tPool.contains(task))
+      return;
+    if (task.timer() instanceof SeqTimer && ((SeqTimer) task.timer()).handler == this)
+      repool(previous, task.timer());
+    else
+      unpool(previous);
+  }
+
+  /**
+   * Lists (and queues, if the timer queue is enabled) the timer if it's active and
+   * pooled, and removes it from the active timers (and the timer queue) otherwise.
+   */
+  protected void syncTimer(SeqTimer timer) {
+    boolean active = timer.handler == this && timer.pooled && timer.isActive();
+    activeTimers.setActive(timer, active);
+    updateBusy();
+    if (tQueue == null)
+      return;
+    if (active)
+      tQueue.add(timer);
+    else
+      tQueue.remove(timer);
+  }
+
+  /**
+   * Returns the tasks registered at the handler, as an unmodifiable view (see
+   * {@link #registerTask(TimingTask)} and {@link #unregisterTask(TimingTask)}). Note that
+   * unregistering a task may change the order of the remaining ones.
+   */
+  public List<TimingTask> tasks() {
+    return Collections.unmodifiableList(tPool);
+  }
+
+  /**
+   * Returns a copy of the timer pool. Modifying it doesn't affect the handler.
+   *
+   * @deprecated Use {@link #tasks()} instead, which doesn't copy the pool.
+   */
+  @Deprecated
+  public ArrayList<TimingTask> timerPool() {
+    return new ArrayList<TimingTask>(tPool);
+  }
+
+  /**
+   * Register a task in the timer pool and creates a sequential timer for it.
+   */
+  public void registerTask(TimingTask task) {
+    registerTask(task, new SeqTimer(this, task));
+  }
+
+  /**
+   * Register a task in the timer pool with the given timer.
+   */
+  public void registerTask(TimingTask task, Timer timer) {
+    task.setTimer(timer);
+    if (isDeferred())
+      defer(new PoolOp(PoolOp.REGISTER_TASK, task, timer));
+    else {
+      drainPending();
+      addTask(task, timer);
+    }
+  }
+
+  /**
+   * Unregisters the timer. You may also unregister the task this timer is attached to.
+   *
+   * @see #unregisterTask(TimingTask)
+   */
+  public void unregisterTask(SeqTimer t) {
+    if (isDeferred())
+      defer(new PoolOp(PoolOp.UNREGISTER_TASK, t.timingTask(), t));
+    else {
+      drainPending();
+      removeTask(t.timingTask(), t);
+    }
+  }
+
+  /**
+   * Unregisters the timer task.
+   *
+   * @see #unregisterTask(SeqTimer)
+   */
+  public void unregisterTask(TimingTask task) {
+    if (isDeferred())
+      defer(new PoolOp(PoolOp.UNREGISTER_TASK, task, task.timer()));
+    else {
+      drainPending();
+      removeTask(task, task.timer());
+    }
+  }
+
+  // B u l k  o p e r a t i o n s
+
+  /**
+   * Registers all the tasks in a single pass. Tasks already holding a sequential timer of
+   * this handler keep it, and the others get a new one.
+   *
+   * @see #registerTask(TimingTask)
+   */
+  public void registerTasks(Collection<? extends TimingTask> tasks) {
+    boolean deferred = isDeferred();
+    if (!deferred)
+      drainPending();
+    for (TimingTask task : tasks) {
+      Timer timer = task.timer();
+      if (!(timer instanceof SeqTimer) || ((SeqTimer) timer).handler != this)
+        timer = new SeqTimer(this, task);
+      task.setTimer(timer);
+      if (deferred)
+        defer(new PoolOp(PoolOp.REGISTER_TASK, task, timer));
+      else
+        addTask(task, timer);
+    }
+  }
+
+  /**
+   * Unregisters all the tasks in a single pass.
+   *
+   * @see #unregisterTask(TimingTask)
+   */
+  public void unregisterTasks(Collection<? extends TimingTask> tasks) {
+    boolean deferred = isDeferred();
+    if (!deferred)
+      drainPending();
+    for (TimingTask task : tasks)
+      if (deferred)
+        defer(new PoolOp(PoolOp.UNREGISTER_TASK, task, task.timer()));
+      else
+        removeTask(task, task.timer());
+  }
+
+  /**
+   * Runs all the tasks periodically, with the given period in milliseconds. All their
+   * timers share the same start time, so that they stay in phase.
+   *
+   * @see remixlab.fpstiming.TimingTask#run(long)
+   */
+  public void runTasks(Collection<? extends TimingTask> tasks, long period) {
+    beginBatch();
+    try {
+      for (TimingTask task : tasks)
+        task.run(period);
+    } finally {
+      endBatch();
+    }
+  }
+
+  /**
+   * Stops all the tasks.
+   *
+   * @see remixlab.fpstiming.TimingTask#stop()
+   */
+  public void stopTasks(Collection<? extends TimingTask> tasks) {
+    for (TimingTask task : tasks)
+      task.stop();
+  }
+
+  /**
+   * Registers all the animated objects in a single pass.
+   *
+   * @see #registerAnimator(Animator)
+   */
+  public void registerAnimators(Collection<? extends Animator> objects) {
+    for (Animator object : objects)
+      registerAnimator(object);
+  }
+
+  /**
+   * Unregisters all the animated objects in a single pass.
+   *
+   * @see #unregisterAnimator(Animator)
+   */
+  public void unregisterAnimators(Collection<? extends Animator> objects) {
+    for (Animator object : objects)
+      unregisterAnimator(object);
+  }
+
+  /**
+   * Starts the animation of all the objects, sharing the same start time.
+   *
+   * @see remixlab.fpstiming.Animator#startAnimation()
+   */
+  public void startAnimations(Collection<? extends Animator> objects) {
+    beginBatch();
+    try {
+      for (Animator object : objects)
+        object.startAnimation();
+    } finally {
+      endBatch();
+    }
+  }
+
+  /**
+   * Stops the animation of all the objects.
+   *
+   * @see remixlab.fpstiming.Animator#stopAnimation()
+   */
+  public void stopAnimations(Collection<? extends Animator> objects) {
+    for (Animator object : objects)
+      object.stopAnimation();
+  }
+
+  /**
+   * Restarts the animation of all the objects, sharing the same start time.
+   *
+   * @see remixlab.fpstiming.Animator#restartAnimation()
+   */
+  public void restartAnimations(Collection<? extends Animator> objects) {
+    beginBatch();
+    try {
+      for (Animator object : objects)
+        object.restartAnimation();
+    } finally {
+      endBatch();
+    }
+  }
+
+  /**
+   * Returns the task group with the given name, creating it if needed.
+   */
+  public TaskGroup taskGroup(String name) {
+    TaskGroup group = groups.get(name);
+    if (group == null) {
+      group = new TaskGroup(this, name);
+      groups.put(name, group);
+    }
+    return group;
+  }
+
+  /**
+   * Removes the task group with the given name. Its tasks are left untouched.
+   */
+  public void removeTaskGroup(String name) {
+    groups.remove(name);
+  }
+
+  /**
+   * Returns the names of the task groups.
+   */
+  public Collection<String> taskGroups() {
+    return groups.keySet();
+  }
+
+  /**
+   * Samples the clock once so that all the timers run by the calling thread until
+   * {@link #endBatch()} share the same start time. Batches may be nested, in which case
+   * the outermost one sets the start time. Internal use.
+   */
+  protected void beginBatch() {
+    if (batchThread == Thread.currentThread()) {
+      batchDepth++;
+      return;
+    }
+    batchTime = now();
+    batchThread = Thread.currentThread();
+    batchDepth = 1;
+  }
+
+  /**
+   * Ends the batch started with {@link #beginBatch()}. Internal use.
+   */
+  protected void endBatch() {
+    if (batchThread == Thread.currentThread() && --batchDepth == 0)
+      batchThread = null;
+  }
+
+  /**
+   * Returns the start time of a timer run now: the batch time within a batch (see
+   * {@link #beginBatch()}), and {@link #now()} otherwise. Internal use.
+   */
+  protected long startTime() {
+    return batchThread == Thread.currentThread() ? batchTime : now();
+  }
+
+  /**
+   * Adds the task to the timer pool. Internal use.
+   */
+  protected void addTask(TimingTask task, Timer timer) {
+    if (tPool.add(task) && task.isOrdered())
+      syncTaskOrder(task);
+    pool(timer);
+  }
+
+  /**
+   * Removes the task from the timer pool. Internal use.
+   */
+  protected void removeTask(Object task, Timer timer) {
+    // the ranks of the remaining tasks are still valid
+    if (tPool.remove(task) && taskOrder != null && taskOrder.tasks.remove(task) && taskOrder.tasks.isEmpty())
+      discardTaskOrder();
+    unpool(timer);
+    if (metrics != null)
+      metrics.remove(task);
+  }
+
+  /**
+   * Flags the sequential timer as pooled, queues it when it's active and moves its state
+   * into the timer store, if enabled.
+   */
+  protected void pool(Timer timer) {
+    if (timer instanceof SeqTimer) {
+      SeqTimer seqTimer = (SeqTimer) timer;
+      seqTimer.pooled = true;
+      if (seqTimer.handler == this) {
+        activeTimers.add(seqTimer);
+        if (tStore != null)
+          tStore.add(seqTimer);
+      }
+      syncTimer(seqTimer);
+    }
+  }
+
+  /**
+   * Unpools the previous sequential timer and pools the given one in its place, so that
+   * the task keeps its position in the registration order.
+   */
+  protected void repool(SeqTimer previous, Timer timer) {
+    if (timer instanceof SeqTimer && ((SeqTimer) timer).handler == this && previous.handler == this)
+      activeTimers.replace(previous, (SeqTimer) timer);
+    unpool(previous);
+    pool(timer);
+  }
+
+  /**
+   * Flags the sequential timer as not pooled and removes it from the timer queue and the
+   * timer store.
+   */
+  protected void unpool(Timer timer) {
+    if (timer instanceof SeqTimer) {
+      SeqTimer seqTimer = (SeqTimer) timer;
+      seqTimer.pooled = false;
+      if (seqTimer.handler == this)
+        activeTimers.remove(seqTimer);
+      if (tStore != null)
+        tStore.remove(seqTimer);
+      syncTimer(seqTimer);
+    }
+  }
+
+  /**
+   * Makes all single shot tasks to be unregistered once they're executed, so that they
+   * don't stay in the {@link #tasks()}. Tasks may also opt-in individually (see
+   * {@link remixlab.fpstiming.TimingTask#setAutoDispose(boolean)}).
+   *
+   * @see #disableAutoDispose()
+   */
+  public void enableAutoDispose() {
+    autoDispose = true;
+  }
+
+  /**
+   * Keeps executed single shot tasks registered (default), unless they opt-in to be
+   * disposed (see {@link remixlab.fpstiming.TimingTask#setAutoDispose(boolean)}).
+   *
+   * @see #enableAutoDispose()
+   */
+  public void disableAutoDispose() {
+    autoDispose = false;
+  }
+
+  /**
+   * Returns {@code true} if executed single shot tasks are unregistered and {@code false}
+   * otherwise.
+   *
+   * @see #enableAutoDispose()
+   */
+  public boolean isAutoDisposeEnabled() {
+    return autoDispose;
+  }
+
+  /**
+   * Internal use. Called by the sequential timer after its single shot was executed.
+   * Unregisters the task according to the auto-dispose policy and recycles it when it's
+   * a {@link remixlab.fpstiming.DelayedTask}.
+   */
+  protected void expireTimer(SeqTimer timer) {
+    Taskable task = timer.timingTask();
+    if (task instanceof DelayedTask) {
+      DelayedTask delayed = (DelayedTask) task;
+      unregisterTask(delayed);
+      delayed.setCallback(null);
+      if (!isForeignThread())
+        idleTasks.push(delayed);
+    } else if (task instanceof TimingTask) {
+      TimingTask timingTask = (TimingTask) task;
+      if (autoDispose || timingTask.isAutoDispose())
+        unregisterTask(timingTask);
+    }
+  }
+
+  /**
+   * Executes the callback once, after the given delay in milliseconds. The callback is
+   * wrapped in a recycled {@link remixlab.fpstiming.DelayedTask} (and its sequential
+   * timer) when one is available, which is handed back to the handler once executed.
+   * <p>
+   * Returns the delayed task, which may be used to {@link TimingTask#cancel()} it before
+   * it's executed.
+   */
+  public DelayedTask runOnce(Taskable callback, long delay) {
+    DelayedTask task = isForeignThread() ? null : idleTasks.poll();
+    if (task == null)
+      task = new DelayedTask();
+    task.setCallback(callback);
+    if (task.timer() == null)
+      registerTask(task);
+    else
+      registerTask(task, task.timer());
+    task.runOnce(delay);
+    return task;
+  }
+
+  /**
+   * Returns {@code true} if the calling thread is not the one calling {@link #handle()},
+   * or the one that created the handler before {@link #handle()} is first called.
+   */
+  protected boolean isForeignThread() {
+    Thread thread = frameThread;
+    return thread != null && thread != Thread.currentThread();
+  }
+
+  /**
+   * Returns {@code true} if the task is registered and {@code false} otherwise.
+   */
+  public boolean isTaskRegistered(TimingTask task) {
+    return tPool.contains(task);
+  }
+
+  /**
+   * Recomputes the frame rate based upon the frequency at which {@link #handle()} is
+   * called from within the application main event loop. The frame rate is needed to sync
+   * all timing operations.
+   */
+  protected void updateFrameRate() {
+    long now = clock.nanoTime();
+    if (fastForwardStep > 0) {
+      if (!paused)
+        frameTime += fastForwardStep;
+    } else if (!paused)
+      frameTime += timeScale == 1 ? now - clockTime : (long) ((now - clockTime) * timeScale);
+    clockTime = now;
+    if (fCount > 1 && now > frameRateLastNanos) {
+      // update the current frameRate
+      estimator.update(now - frameRateLastNanos);
+      frameRate = estimator.frameRate();
+    }
+    frameRateLastNanos = now;
+    fCount++;
+  }
+
+  /**
+   * Returns the frame rate estimator. Default is an {@link remixlab.fpstiming.EmaEstimator}.
+   *
+   * @see #setFrameRateEstimator(FrameRateEstimator)
+   */
+  public FrameRateEstimator frameRateEstimator() {
+    return estimator;
+  }
+
+  /**
+   * Sets the frame rate estimator, e.g., a {@link remixlab.fpstiming.WindowedEstimator}
+   * to get windowed frame time statistics and more robust timer trigger predictions.
+   */
+  public void setFrameRateEstimator(FrameRateEstimator e) {
+    estimator = e;
+    frameRate = estimator.frameRate();
+  }
+
+  /**
+   * Returns the clock used to time the handler.
+   *
+   * @see #setClock(Clock)
+   */
+  public Clock clock() {
+    return clock;
+  }
 
   /**
-   * Main constructor.
+   * Sets the clock used to time the handler. The handler time (see {@link #frameTime()})
+   * goes on from where it was, so that active timers keep their phase.
    */
-  public TimingHandler() {
-    fCount = 0;
-    frameRate = 10;
-    frameRateLastMillis = System.currentTimeMillis();
-    tPool = new ArrayList<TimingTask>();
-    aPool = new ArrayList<Animator>();
+  public void setClock(Clock c) {
+    clock = c;
+    clockTime = clock.nanoTime();
+    frameRateLastNanos = clockTime;
   }
 
   /**
-   * Constructor that takes and registers an animation object.
+   * Returns the handler time (in nanoseconds) at the beginning of the current frame. All
+   * timers are triggered against this single sample.
+   * <p>
+   * The handler time follows the {@link #clock()}, scaled by the {@link #timeScale()}. It
+   * stands still while the handler {@link #isPaused()}, and advances by a fixed step per
+   * frame in fast-forward mode (see {@link #enableFastForward(long)}).
    */
-  public TimingHandler(Animator aObject) {
-    this();
-    this.registerAnimator(aObject);
+  public long frameTime() {
+    return frameTime;
   }
 
   /**
-   * Handler's main method. It should be called from within your main event loop. It does
-   * the following: 1. Recomputes the frame rate; 2. Executes the all timers (those in the
-   * {@link #timerPool()}) callback functions; and, 3. Performs all the animated objects
-   * (those in the {@link #animatorPool()}) animation functions.
+   * Returns the current handler time (in nanoseconds), i.e., the {@link #frameTime()}
+   * plus the scaled time elapsed since the frame began.
    */
-  public void handle() {
-    updateFrameRate();
-    for (TimingTask task : tPool)
-      if (task.timer() != null)
-        if (task.timer() instanceof SeqTimer)
-          if (((SeqTimer) task.timer()).timingTask() != null)
-            ((SeqTimer) task.timer()).execute();
-    // Animation
-    for (Animator aObj : aPool)
-      if (aObj.animationStarted())
-        if (aObj.timer().trigggered())
-          if (!aObj.invokeAnimationHandler())
-            aObj.animate();
+  public long now() {
+    if (paused || fastForwardStep > 0)
+      return frameTime;
+    long elapsed = clock.nanoTime() - clockTime;
+    return frameTime + (timeScale == 1 ? elapsed : (long) (elapsed * timeScale));
   }
 
   /**
-   * Returns the timer pool.
+   * Returns the expected duration of a frame, in nanoseconds, as predicted by the
+   * {@link #frameRateEstimator()}.
    */
-  public ArrayList<TimingTask> timerPool() {
-    return tPool;
+  public long framePeriod() {
+    return estimator.framePeriod();
   }
 
   /**
-   * Register a task in the timer pool and creates a sequential timer for it.
+   * Returns how much the handler time is expected to advance in the next frame: the
+   * {@link #framePeriod()} scaled by the {@link #timeScale()}, the fast-forward step, or
+   * {@code 0} while paused. It's what timers use to predict whether they should be
+   * triggered at the current frame or at the next one.
    */
-  public void registerTask(TimingTask task) {
-    task.setTimer(new SeqTimer(this, task));
-    tPool.add(task);
+  public long frameStep() {
+    if (paused)
+      return 0;
+    if (fastForwardStep > 0)
+      return fastForwardStep;
+    return timeScale == 1 ? framePeriod() : (long) (framePeriod() * timeScale);
   }
 
   /**
-   * Register a task in the timer pool with the given timer.
+   * Pauses the handler time, so that no timer is triggered and no object is animated
+   * until {@link #resume()}, even those already overdue. Timers and animations keep their
+   * phase. Parallel timers, run by the {@link #executor()}, are not paused.
    */
-  public void registerTask(TimingTask task, Timer timer) {
-    task.setTimer(timer);
-    tPool.add(task);
+  public void pause() {
+    if (!paused) {
+      frameTime = now();
+      paused = true;
+    }
   }
 
   /**
-   * Unregisters the timer. You may also unregister the task this timer is attached to.
-   *
-   * @see #unregisterTask(TimingTask)
+   * Resumes the handler time after {@link #pause()}.
    */
-  public void unregisterTask(SeqTimer t) {
-    tPool.remove(t.timingTask());
+  public void resume() {
+    if (paused) {
+      paused = false;
+      clockTime = clock.nanoTime();
+      wakeUp();
+    }
   }
 
   /**
-   * Unregisters the timer task.
+   * Returns {@code true} if the handler is paused and {@code false} otherwise.
+   */
+  public boolean isPaused() {
+    return paused;
+  }
+
+  /**
+   * Returns the factor by which the {@link #clock()} time is scaled into handler time.
+   * Default is {@code 1}.
+   */
+  public double timeScale() {
+    return timeScale;
+  }
+
+  /**
+   * Sets the time scale, e.g., {@code 0.5} for slow motion or {@code 4} to fast-forward.
+   * All the timers and animations follow it without losing their phase.
    *
-   * @see #unregisterTask(SeqTimer)
+   * @see #timeScale()
    */
-  public void unregisterTask(TimingTask task) {
-    tPool.remove(task);
+  public void setTimeScale(double scale) {
+    if (scale > 0 && scale != timeScale) {
+      frameTime = now();
+      clockTime = clock.nanoTime();
+      timeScale = scale;
+    }
   }
 
   /**
-   * Returns {@code true} if the task is registered and {@code false} otherwise.
+   * Enables the fast-forward mode: each {@link #handle()} advances the handler time by
+   * {@code frameNanos}, regardless of the {@link #clock()}, so that calling it as fast as
+   * possible runs an offline simulation many times faster than real time with the same
+   * task code.
+   *
+   * @see #disableFastForward()
    */
-  public boolean isTaskRegistered(TimingTask task) {
-    return tPool.contains(task);
+  public void enableFastForward(long frameNanos) {
+    if (frameNanos > 0) {
+      if (fastForwardStep == 0)
+        frameTime = now();
+      fastForwardStep = frameNanos;
+    }
   }
 
   /**
-   * Recomputes the frame rate based upon the frequency at which {@link #handle()} is
-   * called from within the application main event loop. The frame rate is needed to sync
-   * all timing operations.
+   * Disables the fast-forward mode, so that the handler time follows the
+   * {@link #clock()} again.
    */
-  protected void updateFrameRate() {
-    long now = System.currentTimeMillis();
-    if (fCount > 1) {
-      // update the current frameRate
-      double rate = 1000.0 / ((now - frameRateLastMillis) / 1000.0);
-      float instantaneousRate = (float) rate / 1000.0f;
-      frameRate = (frameRate * 0.9f) + (instantaneousRate * 0.1f);
+  public void disableFastForward() {
+    if (fastForwardStep > 0) {
+      fastForwardStep = 0;
+      clockTime = clock.nanoTime();
     }
-    frameRateLastMillis = now;
-    fCount++;
   }
 
   /**
-   * Returns the approximate frame rate of the software as it executes. The initial value
-   * is 10 fps and is updated with each frame. The value is averaged (integrated) over
-   * several frames. As such, this value won't be valid until after 5-10 frames.
+   * Returns {@code true} if the fast-forward mode is enabled and {@code false} otherwise.
+   *
+   * @see #enableFastForward(long)
+   */
+  public boolean isFastForwardEnabled() {
+    return fastForwardStep > 0;
+  }
+
+  /**
+   * Returns the approximate frame rate of the software as it executes, as estimated by the
+   * {@link #frameRateEstimator()}. With the default estimator the initial value is 10 fps
+   * and is updated with each frame. The value is averaged (integrated) over several
+   * frames. As such, this value won't be valid until after 5-10 frames.
    */
   public float frameRate() {
     return frameRate;
@@ -152,38 +1770,151 @@ public class TimingHandler {
 
   /**
    * Converts all registered timers to single-threaded timers.
+   *
+   * @see #parallelizeTimers()
    */
   public void restoreTimers() {
     boolean isActive;
 
-    for (TimingTask task : tPool) {
+    // stopping a timer applies the pending modifications, which may unregister tasks
+    drainPending();
+    for (TimingTask task : tPool.toArray(new TimingTask[tPool.size()])) {
+      if (!tPool.contains(task))
+        continue;
       long period = 0;
       boolean rOnce = false;
       isActive = task.isActive();
       if (isActive) {
-        period = task.period();
+        period = nanoPeriod(task.timer());
         rOnce = task.timer().isSingleShot();
       }
+      if (task.timer() instanceof SeqTimer) {
+        // keep the timer phase
+        SeqTimer timer = new SeqTimer(this, task);
+        SeqTimer previous = (SeqTimer) task.timer();
+        timer.adopt(previous);
+        task.stop();
+        repool(previous, timer);
+        task.setTimer(timer);
+        continue;
+      }
       task.stop();
-      task.setTimer(new SeqTimer(this, task));
+      unpool(task.timer());
+      SeqTimer timer = new SeqTimer(this, task);
+      task.setTimer(timer);
+      pool(timer);
       if (isActive) {
-        if (rOnce)
-          task.runOnce(period);
-        else
-          task.run(period);
+        timer.setSingleShot(rOnce);
+        timer.run(period, TimeUnit.NANOSECONDS);
+      }
+    }
+  }
+
+  /**
+   * Converts all registered timers to multi-threaded timers (see
+   * {@link remixlab.fpstiming.ParallelTimer}), whose tasks are then executed on the
+   * {@link #executor()} instead of from within {@link #handle()}.
+   *
+   * @see #restoreTimers()
+   */
+  public void parallelizeTimers() {
+    boolean isActive;
+
+    // stopping a timer applies the pending modifications, which may unregister tasks
+    drainPending();
+    for (TimingTask task : tPool.toArray(new TimingTask[tPool.size()])) {
+      if (!tPool.contains(task))
+        continue;
+      long period = 0;
+      boolean rOnce = false;
+      isActive = task.isActive();
+      if (isActive) {
+        period = nanoPeriod(task.timer());
+        rOnce = task.timer().isSingleShot();
+      }
+      task.stop();
+      unpool(task.timer());
+      ParallelTimer timer = new ParallelTimer(this, task);
+      task.setTimer(timer);
+      if (isActive) {
+        timer.setSingleShot(rOnce);
+        timer.run(period, TimeUnit.NANOSECONDS);
       }
     }
+  }
+
+  /**
+   * Returns the period of the timer in nanoseconds, so that sub-millisecond periods are
+   * kept when converting timers (see {@link #restoreTimers()}).
+   */
+  protected static long nanoPeriod(Timer timer) {
+    if (timer instanceof SeqTimer)
+      return ((SeqTimer) timer).period(TimeUnit.NANOSECONDS);
+    if (timer instanceof ParallelTimer)
+      return ((ParallelTimer) timer).period(TimeUnit.NANOSECONDS);
+    return TimeUnit.MILLISECONDS.toNanos(timer.period());
+  }
+
+  /**
+   * Returns the scheduled executor shared by all the
+   * {@link remixlab.fpstiming.ParallelTimer}s of this handler. If none was set (see
+   * {@link #setExecutor(ScheduledExecutorService)}) a pool of daemon threads bounded by
+   * the number of available processors is lazily created.
+   */
+  public ScheduledExecutorService executor() {
+    if (executor == null)
+      executor = Executors.newScheduledThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+        int count;
+
+        @Override
+        public synchronized Thread newThread(Runnable r) {
+          Thread thread = new Thread(r, "fpstiming-" + count++);
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+    return executor;
+  }
+
+  /**
+   * Sets the scheduled executor used by the {@link remixlab.fpstiming.ParallelTimer}s of
+   * this handler, e.g., one whose thread factory creates virtual threads. Should be called
+   * before any parallel timer is run.
+   */
+  public void setExecutor(ScheduledExecutorService e) {
+    executor = e;
+  }
 
-    System.out.println("single threaded timers set");
+  /**
+   * Shuts down the {@link #executor()} (if any) so that parallel timers stop running.
+   */
+  public void shutdownExecutor() {
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
   }
 
   // Animation -->
 
   /**
-   * Returns all the animated objects registered at the handler.
+   * Returns all the animated objects registered at the handler, as an unmodifiable view
+   * (see {@link #registerAnimator(Animator)} and {@link #unregisterAnimator(Animator)}).
+   * Note that unregistering an animated object may change the order of the remaining
+   * ones.
+   */
+  public List<Animator> animators() {
+    return Collections.unmodifiableList(aPool);
+  }
+
+  /**
+   * Returns a copy of the animation pool. Modifying it doesn't affect the handler.
+   *
+   * @deprecated Use {@link #animators()} instead, which doesn't copy the pool.
    */
+  @Deprecated
   public ArrayList<Animator> animatorPool() {
-    return aPool;
+    return new ArrayList<Animator>(aPool);
   }
 
   /**
@@ -192,14 +1923,77 @@ public class TimingHandler {
   public void registerAnimator(Animator object) {
     if (object.timingHandler() != this)
       object.setTimingHandler(this);
-    aPool.add(object);
+    if (isDeferred())
+      defer(new PoolOp(PoolOp.REGISTER_ANIMATOR, object, null));
+    else {
+      drainPending();
+      addAnimator(object);
+    }
   }
 
   /**
    * Unregisters the animation object.
    */
   public void unregisterAnimator(Animator object) {
+    if (isDeferred())
+      defer(new PoolOp(PoolOp.UNREGISTER_ANIMATOR, object, null));
+    else {
+      drainPending();
+      removeAnimator(object);
+    }
+  }
+
+  /**
+   * Adds the animation object to the animator pool. Internal use.
+   */
+  protected void addAnimator(Animator object) {
+    aPool.add(object);
+    if (object instanceof AnimatorObject)
+      syncAnimator((AnimatorObject) object);
+    else {
+      otherAnimators.add(object);
+      updateBusy();
+    }
+  }
+
+  /**
+   * Internal use. Called by the animated object when its animation is started or
+   * stopped, so that the list of started animated objects reflects its state.
+   */
+  protected void updateAnimator(AnimatorObject object) {
+    if (isDeferred())
+      defer(new PoolOp(PoolOp.UPDATE_ANIMATOR, object, null));
+    else {
+      drainPending();
+      syncAnimator(object);
+    }
+  }
+
+  /**
+   * Lists the animated object among the started ones if its animation is started and
+   * it's registered, and removes it from them otherwise.
+   */
+  protected void syncAnimator(AnimatorObject object) {
+    if (object.animationStarted() && aPool.contains(object))
+      activeAnimators.add(object);
+    else
+      activeAnimators.remove(object);
+    updateBusy();
+  }
+
+  /**
+   * Removes the animation object from the animator pool. Internal use.
+   */
+  protected void removeAnimator(Animator object) {
     aPool.remove(object);
+    if (object instanceof AnimatorObject)
+      activeAnimators.remove(object);
+    else
+      otherAnimators.remove(object);
+    pinned.remove(object);
+    if (metrics != null)
+      metrics.remove(object);
+    updateBusy();
   }
 
   /**
@@ -209,4 +2003,392 @@ public class TimingHandler {
   public boolean isAnimatorRegistered(Animator object) {
     return aPool.contains(object);
   }
+
+  // Hierarchy -->
+
+  /**
+   * Adds the given handler as a child of this one, so that it's handled by this handler
+   * {@link #handle()} (after its own tasks and animated objects) instead of being
+   * handled by the application. The child time then follows the time of this handler
+   * (see {@link #frameTime()}), so that pausing, time-scaling or throttling a handler
+   * (see {@link #setThrottle(int)}) applies to its whole subtree. Children having no
+   * active timers, no started animated objects and no busy children (see
+   * {@link #isIdle()}) are skipped at no cost.
+   * <p>
+   * Does nothing if the handler is this one or one of its ancestors. A handler having
+   * another parent is moved here.
+   *
+   * @see #removeChild(TimingHandler)
+   */
+  public void addChild(TimingHandler child) {
+    if (isDeferred())
+      defer(new PoolOp(PoolOp.ADD_CHILD, child, null));
+    else {
+      drainPending();
+      attachChild(child);
+    }
+  }
+
+  /**
+   * Removes the given child handler, which gets back its own clock and frame rate
+   * estimator, so that the application should handle it again.
+   *
+   * @see #addChild(TimingHandler)
+   */
+  public void removeChild(TimingHandler child) {
+    if (isDeferred())
+      defer(new PoolOp(PoolOp.REMOVE_CHILD, child, null));
+    else {
+      drainPending();
+      detachChild(child);
+    }
+  }
+
+  /**
+   * Adds the child handler. Internal use.
+   */
+  protected void attachChild(final TimingHandler child) {
+    for (TimingHandler h = this; h != null; h = h.parent)
+      if (h == child)
+        return;
+    if (child.parent == this)
+      return;
+    if (child.parent != null)
+      child.parent.detachChild(child);
+    children.add(child);
+    child.parent = this;
+    child.ownClock = child.clock;
+    child.ownEstimator = child.estimator;
+    child.throttleCount = 0;
+    child.setClock(new Clock() {
+      @Override
+      public long nanoTime() {
+        return frameTime;
+      }
+    });
+    child.setFrameRateEstimator(new FrameRateEstimator() {
+      @Override
+      public void update(long frameNanos) {
+      }
+
+      @Override
+      public float frameRate() {
+        return TimingHandler.this.frameRate / child.throttle;
+      }
+
+      @Override
+      public long framePeriod() {
+        return TimingHandler.this.frameStep() * child.throttle;
+      }
+
+      @Override
+      public void reset() {
+      }
+    });
+    if (child.busy)
+      busyChildren.add(child);
+    updateBusy();
+  }
+
+  /**
+   * Removes the child handler. Internal use.
+   */
+  protected void detachChild(TimingHandler child) {
+    if (child.parent != this)
+      return;
+    children.remove(child);
+    busyChildren.remove(child);
+    child.parent = null;
+    child.setClock(child.ownClock);
+    child.setFrameRateEstimator(child.ownEstimator);
+    child.ownClock = null;
+    child.ownEstimator = null;
+    updateBusy();
+  }
+
+  /**
+   * Handles the children that are not idle, according to their throttle.
+   */
+  protected void handleChildren() {
+    int n = busyChildren.size();
+    if (n == 0)
+      return;
+    // children may become busy or idle while handled
+    if (visiting.length < n)
+      visiting = new TimingHandler[n << 1];
+    for (int i = 0; i < n; i++)
+      visiting[i] = busyChildren.get(i);
+    for (int i = 0; i < n; i++) {
+      TimingHandler child = visiting[i];
+      visiting[i] = null;
+      if (child.parent == this && ++child.throttleCount >= child.throttle) {
+        child.throttleCount = 0;
+        child.handle();
+      }
+    }
+  }
+
+  /**
+   * Internal use. Updates whether or not the handler is busy, i.e., it has active timers,
+   * started animated objects or busy children, and lets its parent know.
+   */
+  protected void updateBusy() {
+    boolean b = !activeTimers.isEmpty() || !activeAnimators.isEmpty() || !otherAnimators.isEmpty() || !busyChildren.isEmpty()
+        || !completions.isEmpty();
+    if (b == busy)
+      return;
+    busy = b;
+    // a pool modification or a completion may have been queued meanwhile, see defer()
+    if (!b && (!pending.isEmpty() || !completions.isEmpty())) {
+      busy = true;
+      return;
+    }
+    if (parent != null) {
+      if (b)
+        parent.busyChildren.add(this);
+      else
+        parent.busyChildren.remove(this);
+      parent.updateBusy();
+    }
+  }
+
+  /**
+   * Returns {@code true} if the handler has no active timers, no started animated
+   * objects and no busy children, so that its parent skips it. Takes constant time.
+   */
+  public boolean isIdle() {
+    return !busy;
+  }
+
+  /**
+   * Returns the parent handler, or {@code null} if the handler is a root one.
+   *
+   * @see #addChild(TimingHandler)
+   */
+  public TimingHandler parent() {
+    return parent;
+  }
+
+  /**
+   * Returns the child handlers.
+   *
+   * @see #addChild(TimingHandler)
+   */
+  public List<TimingHandler> children() {
+    return Collections.unmodifiableList(children);
+  }
+
+  /**
+   * Makes the handler (when it's a child) to be handled once every {@code frames} frames
+   * of its parent. Its frame rate estimation is throttled accordingly. Default is
+   * {@code 1}.
+   */
+  public void setThrottle(int frames) {
+    if (frames > 0)
+      throttle = frames;
+  }
+
+  /**
+   * Returns the number of parent frames per handled frame.
+   *
+   * @see #setThrottle(int)
+   */
+  public int throttle() {
+    return throttle;
+  }
+
+  // LOD -->
+
+  /**
+   * Sets the level of detail (LOD) policy of the animated objects. Every
+   * {@link #lodInterval()} frames the handler compares its {@link #framePeriod()}
+   * against the {@link #lodTarget(TimeUnit)}, raising its {@link #lodPressure()} when
+   * it's exceeded (or the {@link #frameBudget()} was exceeded) and lowering it when there
+   * is slack. The started {@link remixlab.fpstiming.AnimatorObject}s whose importance
+   * (as scored by the policy) is below the pressure get their animation period stretched
+   * by a power of two, up to {@code 2^}{@link #lodLevels()}, or get suspended when their
+   * importance is far below it (see
+   * {@link remixlab.fpstiming.AnimatorObject#lodFactor()}). They are restored as the
+   * pressure drops.
+   * <p>
+   * Pass {@code null} to disable it (default), which restores all the animated objects.
+   * Animated objects which are not {@link remixlab.fpstiming.AnimatorObject}s are not
+   * affected, and the period of fixed timestep ones is never stretched (they may only
+   * be suspended).
+   */
+  public void setLodPolicy(LodPolicy policy) {
+    lodPolicy = policy;
+    lodCount = 0;
+    lodPressure = 0;
+    lodOverBudget = false;
+    if (policy == null)
+      for (int i = 0; i < aPool.size(); i++)
+        if (aPool.get(i) instanceof AnimatorObject) {
+          AnimatorObject object = (AnimatorObject) aPool.get(i);
+          if (object.lodFactor != 1)
+            object.setLodFactor(1);
+        }
+  }
+
+  /**
+   * Returns the LOD policy, or {@code null} if there's none.
+   *
+   * @see #setLodPolicy(LodPolicy)
+   */
+  public LodPolicy lodPolicy() {
+    return lodPolicy;
+  }
+
+  /**
+   * Updates the {@link #lodPressure()} and the LOD factor of the started animated
+   * objects. Internal use.
+   */
+  protected void updateLod() {
+    lodCount = 0;
+    long period = framePeriod();
+    if (lodOverBudget || period > lodTarget + lodTarget / 10)
+      lodPressure = Math.min(1, lodPressure + 0.1f);
+    else if (period < lodTarget - lodTarget / 10)
+      lodPressure = Math.max(0, lodPressure - 0.1f);
+    lodOverBudget = false;
+    for (int i = 0; i < activeAnimators.size(); i++) {
+      AnimatorObject object = activeAnimators.get(i);
+      int factor = lodFactor(lodPolicy.importance(object));
+      if (factor != object.lodFactor)
+        object.setLodFactor(factor);
+    }
+  }
+
+  /**
+   * Returns the animation period factor of an animated object having the given
+   * importance under the current {@link #lodPressure()}: {@code 1} when the importance
+   * is not below the pressure, {@code 2^k} when it is, {@code k} growing with the gap up
+   * to {@link #lodLevels()}, and {@code 0} (suspended) beyond that.
+   */
+  protected int lodFactor(float importance) {
+    float gap = lodPressure - Math.min(Math.max(importance, 0), 1);
+    if (gap <= 0)
+      return 1;
+    int k = (int) Math.ceil(gap * (lodLevels + 1));
+    return k > lodLevels ? 0 : 1 << k;
+  }
+
+  /**
+   * Returns the current LOD pressure, within {@code [0,1]}: {@code 0} when the handler
+   * keeps up with its {@link #lodTarget(TimeUnit)} and {@code 1} under the highest load.
+   *
+   * @see #setLodPolicy(LodPolicy)
+   */
+  public float lodPressure() {
+    return lodPressure;
+  }
+
+  /**
+   * Sets the target frame period of the LOD policy. Default is 1/60 seconds.
+   *
+   * @see #setLodPolicy(LodPolicy)
+   */
+  public void setLodTarget(long period, TimeUnit unit) {
+    if (period > 0)
+      lodTarget = unit.toNanos(period);
+  }
+
+  /**
+   * Returns the target frame period of the LOD policy in the given time unit.
+   *
+   * @see #setLodTarget(long, TimeUnit)
+   */
+  public long lodTarget(TimeUnit unit) {
+    return unit.convert(lodTarget, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Sets the number of frames between two LOD updates. Default is {@code 30}.
+   */
+  public void setLodInterval(int frames) {
+    if (frames > 0)
+      lodInterval = frames;
+  }
+
+  /**
+   * Returns the number of frames between two LOD updates.
+   *
+   * @see #setLodInterval(int)
+   */
+  public int lodInterval() {
+    return lodInterval;
+  }
+
+  /**
+   * Sets the number of times the animation period of an animated object may be doubled
+   * before it's suspended. Default is {@code 3}, i.e., periods are stretched up to 8x.
+   */
+  public void setLodLevels(int levels) {
+    if (levels >= 0 && levels < 31)
+      lodLevels = levels;
+  }
+
+  /**
+   * Returns the number of times the animation period of an animated object may be
+   * doubled before it's suspended.
+   *
+   * @see #setLodLevels(int)
+   */
+  public int lodLevels() {
+    return lodLevels;
+  }
+
+  // Async -->
+
+  /**
+   * Queues the outcome of the work of the async task, to be applied at the beginning of
+   * the next {@link #handle()}. Internal use.
+   */
+  protected void postCompletion(AsyncTask<?> task) {
+    completions.add(task);
+    wakeUpTree();
+  }
+
+  /**
+   * Applies the queued outcomes of the async tasks (see
+   * {@link remixlab.fpstiming.AsyncTask}), up to the {@link #completionLimit()}, in the
+   * order their work completed. Called by {@link #handle()} right after the deferred pool
+   * modifications are applied and before any timer is handled.
+   */
+  protected void drainCompletions() {
+    int limit = completionLimit > 0 ? completionLimit : Integer.MAX_VALUE;
+    AsyncTask<?> task;
+    for (int n = 0; n < limit && (task = completions.poll()) != null; n++)
+      task.complete();
+    updateBusy();
+  }
+
+  /**
+   * Sets the maximum number of async task outcomes applied per frame, so that a burst of
+   * completions doesn't stall a frame. The remaining ones are applied at the following
+   * frames. Pass {@code 0} to apply all of them at once (default).
+   *
+   * @see remixlab.fpstiming.AsyncTask
+   */
+  public void setCompletionLimit(int limit) {
+    if (limit >= 0)
+      completionLimit = limit;
+  }
+
+  /**
+   * Returns the maximum number of async task outcomes applied per frame, or {@code 0} if
+   * it's unbounded.
+   *
+   * @see #setCompletionLimit(int)
+   */
+  public int completionLimit() {
+    return completionLimit;
+  }
+
+  /**
+   * Returns the number of async task outcomes waiting to be applied.
+   */
+  public int pendingCompletions() {
+    return completions.size();
+  }
 }
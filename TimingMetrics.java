@@ -0,0 +1,198 @@
+/**************************************************************************************
+ * fpstiming_tree
+ * Copyright (c) 2014-2017 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ **************************************************************************************/
+
+package remixlab.fpstiming;
+
+import java.lang.management.ManagementFactory;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Execution metrics collected by a {@link remixlab.fpstiming.TimingHandler} when its
+ * metrics are enabled (see {@link remixlab.fpstiming.TimingHandler#enableMetrics()}):
+ * per callback {@link remixlab.fpstiming.ExecutionStats} (keyed by task or animator)
+ * together with per frame totals. Execution times are measured with
+ * {@code System.nanoTime()}, regardless of the handler clock.
+ * <p>
+ * The live metrics are only meant to be read from the thread calling
+ * {@link remixlab.fpstiming.TimingHandler#handle()}. Use {@link #snapshot()} to hand a
+ * consistent copy to other threads.
+ */
+public class TimingMetrics implements TimingMetricsMXBean {
+  protected IdentityHashMap<Object, ExecutionStats> stats;
+  protected ExecutionStats frameStats;
+  protected ExecutionStats taskFrameStats;
+  protected ExecutionStats animatorFrameStats;
+  protected volatile TimingMetrics published;
+  protected boolean publishing;
+
+  /**
+   * Constructs empty metrics.
+   */
+  public TimingMetrics() {
+    stats = new IdentityHashMap<Object, ExecutionStats>();
+    frameStats = new ExecutionStats();
+    taskFrameStats = new ExecutionStats();
+    animatorFrameStats = new ExecutionStats();
+  }
+
+  /**
+   * Returns the statistics of the given task or animator, creating them if needed.
+   */
+  public ExecutionStats stats(Object callback) {
+    ExecutionStats result = stats.get(callback);
+    if (result == null) {
+      result = new ExecutionStats();
+      stats.put(callback, result);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the statistics of all the instrumented tasks and animators.
+   */
+  public Map<Object, ExecutionStats> allStats() {
+    return stats;
+  }
+
+  /**
+   * Returns the statistics of the whole {@link remixlab.fpstiming.TimingHandler#handle()}
+   * execution time.
+   */
+  public ExecutionStats frameStats() {
+    return frameStats;
+  }
+
+  /**
+   * Returns the statistics of the time spent executing tasks per frame.
+   */
+  public ExecutionStats taskFrameStats() {
+    return taskFrameStats;
+  }
+
+  /**
+   * Returns the statistics of the time spent executing animators per frame.
+   */
+  public ExecutionStats animatorFrameStats() {
+    return animatorFrameStats;
+  }
+
+  /**
+   * Forgets the statistics of the given task or animator, e.g., once it's unregistered.
+   */
+  public void remove(Object callback) {
+    stats.remove(callback);
+  }
+
+  /**
+   * Clears all the statistics.
+   */
+  public void reset() {
+    stats.clear();
+    frameStats.reset();
+    taskFrameStats.reset();
+    animatorFrameStats.reset();
+  }
+
+  /**
+   * Returns a deep copy of the metrics.
+   */
+  public TimingMetrics snapshot() {
+    TimingMetrics copy = new TimingMetrics();
+    for (Map.Entry<Object, ExecutionStats> entry : stats.entrySet())
+      copy.stats.put(entry.getKey(), entry.getValue().copy());
+    copy.frameStats = frameStats.copy();
+    copy.taskFrameStats = taskFrameStats.copy();
+    copy.animatorFrameStats = animatorFrameStats.copy();
+    return copy;
+  }
+
+  /**
+   * Records the totals of a frame. Called by the handler at the end of each frame.
+   */
+  protected void recordFrame(long frameNanos, long taskNanos, long animatorNanos) {
+    frameStats.record(frameNanos);
+    taskFrameStats.record(taskNanos);
+    animatorFrameStats.record(animatorNanos);
+    if (publishing && frameStats.count() % 60 == 0)
+      publish();
+  }
+
+  /**
+   * Publishes a frame level snapshot to be read by the JMX attributes. Called once every
+   * 60 frames while the MBean is registered.
+   */
+  protected void publish() {
+    TimingMetrics copy = new TimingMetrics();
+    copy.frameStats = frameStats.copy();
+    copy.taskFrameStats = taskFrameStats.copy();
+    copy.animatorFrameStats = animatorFrameStats.copy();
+    published = copy;
+  }
+
+  /**
+   * Registers the metrics as a platform MBean under the given object name, e.g.,
+   * {@code "remixlab.fpstiming:type=TimingMetrics"}. The MBean attributes reflect the
+   * frame level metrics as of the last publication.
+   */
+  public void registerMBean(String name) throws JMException {
+    publish();
+    publishing = true;
+    ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(name));
+  }
+
+  /**
+   * Unregisters the platform MBean registered with {@link #registerMBean(String)}.
+   */
+  public void unregisterMBean(String name) throws JMException {
+    publishing = false;
+    ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(name));
+  }
+
+  protected TimingMetrics published() {
+    TimingMetrics p = published;
+    return p == null ? this : p;
+  }
+
+  // M X B e a n
+
+  @Override
+  public long getFrameCount() {
+    return published().frameStats.count();
+  }
+
+  @Override
+  public double getMeanFrameTime() {
+    return published().frameStats.meanTime();
+  }
+
+  @Override
+  public long getMaxFrameTime() {
+    return published().frameStats.maxTime();
+  }
+
+  @Override
+  public long getP99FrameTime() {
+    return published().frameStats.percentile(0.99);
+  }
+
+  @Override
+  public double getMeanTaskTime() {
+    return published().taskFrameStats.meanTime();
+  }
+
+  @Override
+  public double getMeanAnimatorTime() {
+    return published().animatorFrameStats.meanTime();
+  }
+}
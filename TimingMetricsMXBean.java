@@ -0,0 +1,47 @@
+/**************************************************************************************
+ * fpstiming_tree
+ * Copyright (c) 2014-2017 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ **************************************************************************************/
+
+package remixlab.fpstiming;
+
+/**
+ * JMX view of the frame level {@link remixlab.fpstiming.TimingMetrics}. Times are given
+ * in nanoseconds.
+ */
+public interface TimingMetricsMXBean {
+  /**
+   * Returns the number of instrumented frames.
+   */
+  long getFrameCount();
+
+  /**
+   * Returns the mean time taken by a frame.
+   */
+  double getMeanFrameTime();
+
+  /**
+   * Returns the maximum time taken by a frame.
+   */
+  long getMaxFrameTime();
+
+  /**
+   * Returns the 99th percentile of the time taken by a frame.
+   */
+  long getP99FrameTime();
+
+  /**
+   * Returns the mean time spent per frame executing tasks.
+   */
+  double getMeanTaskTime();
+
+  /**
+   * Returns the mean time spent per frame executing animators.
+   */
+  double getMeanAnimatorTime();
+}
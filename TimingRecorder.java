@@ -0,0 +1,152 @@
+/**************************************************************************************
+ * fpstiming_tree
+ * Copyright (c) 2014-2017 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ **************************************************************************************/
+
+package remixlab.fpstiming;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.IdentityHashMap;
+
+/**
+ * Records the timer firings of a {@link remixlab.fpstiming.TimingHandler} (see
+ * {@link remixlab.fpstiming.TimingHandler#startRecording(OutputStream)}) in a compact
+ * binary append-only format, which {@link remixlab.fpstiming.TimingReplay} feeds back
+ * through a handler.
+ * <p>
+ * The stream starts with the {@link #MAGIC} number, the format {@link #VERSION} and the
+ * handler time at which the recording started. It follows a sequence of records, each
+ * one starting with its type byte:
+ * <ul>
+ * <li>{@link #DEFINE}: the id given to a task or animator the first time it fires,
+ * followed by its class name.</li>
+ * <li>{@link #FRAME}: the handler time elapsed since the previous frame (or since the
+ * recording started), the estimated frame rate and the predicted frame step.</li>
+ * <li>{@link #FIRE}: the id of a task or animator which fired within the last frame,
+ * followed by its execution time.</li>
+ * </ul>
+ * Times are given in nanoseconds and integers are variable-length encoded.
+ * <p>
+ * An I/O error stops the recording; see {@link #error()}.
+ */
+public class TimingRecorder {
+  public static final int MAGIC = 0x46505354; // FPST
+  public static final int VERSION = 1;
+  public static final int DEFINE = 1;
+  public static final int FRAME = 2;
+  public static final int FIRE = 3;
+
+  protected DataOutputStream out;
+  protected IdentityHashMap<Object, Integer> ids;
+  protected long lastTime;
+  protected IOException error;
+
+  /**
+   * Constructs a recorder that ignores all the events. Used by subclasses that don't need
+   * to write a stream.
+   */
+  protected TimingRecorder() {
+    ids = new IdentityHashMap<Object, Integer>();
+  }
+
+  /**
+   * Constructs a recorder writing to the given stream, starting at the given handler
+   * time.
+   */
+  public TimingRecorder(OutputStream stream, long startTime) {
+    this();
+    out = new DataOutputStream(new BufferedOutputStream(stream));
+    lastTime = startTime;
+    try {
+      out.writeInt(MAGIC);
+      out.writeShort(VERSION);
+      out.writeLong(startTime);
+    } catch (IOException e) {
+      fail(e);
+    }
+  }
+
+  /**
+   * Records the beginning of a frame.
+   */
+  protected void beginFrame(long frameTime, float frameRate, long frameStep) {
+    if (out == null)
+      return;
+    try {
+      out.writeByte(FRAME);
+      writeVarLong(out, frameTime - lastTime);
+      out.writeFloat(frameRate);
+      writeVarLong(out, frameStep);
+      lastTime = frameTime;
+    } catch (IOException e) {
+      fail(e);
+    }
+  }
+
+  /**
+   * Records that the given task or animator fired, taking the given execution time.
+   */
+  protected void fired(Object callback, long nanos) {
+    if (out == null)
+      return;
+    try {
+      Integer id = ids.get(callback);
+      if (id == null) {
+        id = ids.size();
+        ids.put(callback, id);
+        out.writeByte(DEFINE);
+        writeVarLong(out, id);
+        out.writeUTF(callback.getClass().getName());
+      }
+      out.writeByte(FIRE);
+      writeVarLong(out, id);
+      writeVarLong(out, Math.max(0, nanos));
+    } catch (IOException e) {
+      fail(e);
+    }
+  }
+
+  /**
+   * Flushes the recorded events to the underlying stream, which is left open.
+   */
+  public void flush() {
+    if (out == null)
+      return;
+    try {
+      out.flush();
+    } catch (IOException e) {
+      fail(e);
+    }
+  }
+
+  /**
+   * Returns the I/O error that stopped the recording, or {@code null} if none occurred.
+   */
+  public IOException error() {
+    return error;
+  }
+
+  protected void fail(IOException e) {
+    error = e;
+    out = null;
+  }
+
+  /**
+   * Writes a non-negative long using a variable-length encoding (7 bits per byte).
+   */
+  protected static void writeVarLong(DataOutputStream out, long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      out.writeByte((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    out.writeByte((int) value);
+  }
+}
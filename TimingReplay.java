@@ -0,0 +1,251 @@
+/**************************************************************************************
+ * fpstiming_tree
+ * Copyright (c) 2014-2017 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ **************************************************************************************/
+
+package remixlab.fpstiming;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replay driver feeding a recording made by a {@link remixlab.fpstiming.TimingRecorder}
+ * back through a {@link remixlab.fpstiming.TimingHandler}. The handler is driven by a
+ * {@link remixlab.fpstiming.ManualClock} set to the recorded frame times, and its frame
+ * rate estimation is replaced by the recorded one, so that the same timers fire at the
+ * same frames given that the same tasks and animators were set up. Each {@link #step()}
+ * replays one frame and compares the number of firings against the recorded ones.
+ * <p>
+ * Typical use:
+ * <p>
+ * {@code TimingReplay replay = new TimingReplay(handler, in);}<br>
+ * {@code // set up the tasks and animators as in the recorded session}<br>
+ * {@code while (replay.step());}
+ * <p>
+ * The handler must not be time-scaled nor fast-forwarded, since the recorded times
+ * already account for it.
+ */
+public class TimingReplay {
+  protected TimingHandler handler;
+  protected DataInputStream in;
+  protected ManualClock clock;
+  protected Estimator estimator;
+  protected Counter counter;
+  protected ArrayList<String> classNames;
+  protected long time;
+  protected float rate;
+  protected long step;
+  protected boolean nextFrame;
+  protected long frames;
+  protected long recordedFirings;
+  protected long recordedNanos;
+  protected ArrayList<Long> divergences;
+
+  /**
+   * Frame rate estimator returning the recorded values.
+   */
+  protected static class Estimator implements FrameRateEstimator {
+    float rate = 10;
+    long period;
+
+    @Override
+    public void update(long frameNanos) {
+    }
+
+    @Override
+    public float frameRate() {
+      return rate;
+    }
+
+    @Override
+    public long framePeriod() {
+      return period;
+    }
+
+    @Override
+    public void reset() {
+    }
+  }
+
+  /**
+   * Recorder counting the replayed firings.
+   */
+  protected static class Counter extends TimingRecorder {
+    long firings;
+    long nanos;
+
+    @Override
+    protected void fired(Object callback, long time) {
+      firings++;
+      nanos += time;
+    }
+  }
+
+  /**
+   * Reads the recording header from the stream and sets up the handler to replay it:
+   * its clock, frame rate estimator and recorder are replaced and its time is set to the
+   * recording start time.
+   */
+  public TimingReplay(TimingHandler h, InputStream stream) throws IOException {
+    handler = h;
+    in = new DataInputStream(new BufferedInputStream(stream));
+    if (in.readInt() != TimingRecorder.MAGIC)
+      throw new IOException("Not a timing recording");
+    int version = in.readShort();
+    if (version != TimingRecorder.VERSION)
+      throw new IOException("Unsupported timing recording version: " + version);
+    time = in.readLong();
+    classNames = new ArrayList<String>();
+    divergences = new ArrayList<Long>();
+    clock = new ManualClock(time);
+    estimator = new Estimator();
+    counter = new Counter();
+    handler.setClock(clock);
+    handler.frameTime = time;
+    handler.setTimeScale(1);
+    handler.disableFastForward();
+    handler.setFrameRateEstimator(estimator);
+    handler.recorder = counter;
+    nextFrame = readFrameRecords();
+  }
+
+  /**
+   * Replays the next recorded frame. Returns {@code false} once the recording is
+   * exhausted.
+   */
+  public boolean step() throws IOException {
+    if (!nextFrame)
+      return false;
+    clock.setNanoTime(time);
+    estimator.rate = rate;
+    estimator.period = step;
+    handler.frameRate = rate;
+    long firings = counter.firings;
+    long expected = recordedFirings;
+    boolean more = readFrameRecords();
+    handler.handle();
+    if (counter.firings - firings != recordedFirings - expected)
+      divergences.add(frames);
+    frames++;
+    nextFrame = more;
+    return true;
+  }
+
+  /**
+   * Replays all the remaining frames.
+   */
+  public void run() throws IOException {
+    while (step())
+      ;
+  }
+
+  /**
+   * Reads the records up to the next frame. Returns {@code false} at end of stream.
+   */
+  protected boolean readFrameRecords() throws IOException {
+    int type;
+    while ((type = in.read()) >= 0) {
+      if (type == TimingRecorder.FRAME) {
+        readFrame();
+        return true;
+      }
+      readRecord(type);
+    }
+    return false;
+  }
+
+  protected void readFrame() throws IOException {
+    time += readVarLong();
+    rate = in.readFloat();
+    step = readVarLong();
+  }
+
+  protected void readRecord(int type) throws IOException {
+    switch (type) {
+      case TimingRecorder.DEFINE:
+        readVarLong();
+        classNames.add(in.readUTF());
+        break;
+      case TimingRecorder.FIRE:
+        readVarLong();
+        recordedFirings++;
+        recordedNanos += readVarLong();
+        break;
+      default:
+        throw new IOException("Corrupt timing recording: unknown record type " + type);
+    }
+  }
+
+  protected long readVarLong() throws IOException {
+    long result = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      int b = in.read();
+      if (b < 0)
+        throw new EOFException();
+      result |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0)
+        return result;
+    }
+    throw new IOException("Corrupt timing recording: malformed integer");
+  }
+
+  /**
+   * Returns the number of replayed frames.
+   */
+  public long frames() {
+    return frames;
+  }
+
+  /**
+   * Returns the class names of the recorded tasks and animators, indexed by their ids.
+   */
+  public List<String> classNames() {
+    return classNames;
+  }
+
+  /**
+   * Returns the number of firings recorded in the replayed frames.
+   */
+  public long recordedFirings() {
+    return recordedFirings;
+  }
+
+  /**
+   * Returns the total execution time of the firings recorded in the replayed frames.
+   */
+  public long recordedTime() {
+    return recordedNanos;
+  }
+
+  /**
+   * Returns the number of firings that took place while replaying.
+   */
+  public long replayedFirings() {
+    return counter.firings;
+  }
+
+  /**
+   * Returns the total execution time of the firings that took place while replaying.
+   */
+  public long replayedTime() {
+    return counter.nanos;
+  }
+
+  /**
+   * Returns the (zero based) indices of the replayed frames whose number of firings
+   * differs from the recorded one.
+   */
+  public List<Long> divergences() {
+    return divergences;
+  }
+}
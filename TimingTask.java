@@ -10,6 +10,9 @@
 
 package remixlab.fpstiming;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * An abstract wrapper class holding a {@link #timer()} together with its call back method
  * ( {@link remixlab.fpstiming.Taskable#execute()}) which derived classes should
@@ -17,6 +20,11 @@ package remixlab.fpstiming;
  */
 public abstract class TimingTask implements Taskable {
   protected Timer tmr;
+  protected boolean autoDispose;
+  protected int priority;
+  protected ArrayList<TimingTask> dependencies;
+  // position in the handler execution order (-1 when not ranked, see TaskOrder)
+  int rank = -1;
 
   /**
    * Returns the timer instance.
@@ -26,10 +34,106 @@ public abstract class TimingTask implements Taskable {
   }
 
   /**
-   * Sets the timer instance.
+   * Sets the timer instance. If the task is registered at the handler of its previous
+   * (sequential) timer, the handler executes the task with the new timer from then on.
    */
   public void setTimer(Timer t) {
+    Timer previous = tmr;
     tmr = t;
+    if (previous != t && previous instanceof SeqTimer)
+      ((SeqTimer) previous).handler.replaceTimer(this, (SeqTimer) previous);
+  }
+
+  /**
+   * Returns {@code true} if the task should be unregistered from its timing handler once
+   * it's executed as a single shot (see {@link #runOnce(long)}).
+   *
+   * @see remixlab.fpstiming.TimingHandler#enableAutoDispose()
+   */
+  public boolean isAutoDispose() {
+    return autoDispose;
+  }
+
+  /**
+   * Defines whether or not the task should be unregistered from its timing handler once
+   * it's executed as a single shot.
+   *
+   * @see #isAutoDispose()
+   */
+  public void setAutoDispose(boolean dispose) {
+    autoDispose = dispose;
+  }
+
+  /**
+   * Returns the task priority. Among the tasks that are triggered at the same frame, those
+   * with a higher priority are executed first. Default is {@code 0}.
+   *
+   * @see remixlab.fpstiming.TimingHandler#setFrameBudget(long)
+   */
+  public int priority() {
+    return priority;
+  }
+
+  /**
+   * Sets the task priority.
+   *
+   * @see #priority()
+   */
+  public void setPriority(int p) {
+    if (priority != p) {
+      priority = p;
+      invalidateOrder();
+    }
+  }
+
+  /**
+   * Makes this task to be executed after the given one whenever both are triggered at the
+   * same frame, regardless of their priorities. Cyclic dependencies are broken by
+   * priority.
+   *
+   * @see #removeDependency(TimingTask)
+   */
+  public void addDependency(TimingTask task) {
+    if (dependencies == null)
+      dependencies = new ArrayList<TimingTask>();
+    if (task != this && !dependencies.contains(task)) {
+      dependencies.add(task);
+      invalidateOrder();
+    }
+  }
+
+  /**
+   * Removes a dependency previously added with {@link #addDependency(TimingTask)}.
+   */
+  public void removeDependency(TimingTask task) {
+    if (dependencies != null && dependencies.remove(task))
+      invalidateOrder();
+  }
+
+  /**
+   * Returns the tasks this task should be executed after. May be empty.
+   *
+   * @see #addDependency(TimingTask)
+   */
+  public List<TimingTask> dependencies() {
+    if (dependencies == null)
+      dependencies = new ArrayList<TimingTask>();
+    return dependencies;
+  }
+
+  /**
+   * Returns {@code true} if the task has a non-default priority or dependencies.
+   */
+  protected boolean isOrdered() {
+    return priority != 0 || (dependencies != null && !dependencies.isEmpty());
+  }
+
+  /**
+   * Tells the handler of the task timer that the execution order should be recomputed.
+   */
+  protected void invalidateOrder() {
+    if (timer() instanceof SeqTimer)
+      ((SeqTimer) timer()).handler.invalidateTaskOrder(this);
   }
 
   // Wrappers
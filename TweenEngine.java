@@ -0,0 +1,429 @@
+/**************************************************************************************
+ * fpstiming_tree
+ * Copyright (c) 2014-2017 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ **************************************************************************************/
+
+package remixlab.fpstiming;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Animated object evaluating many keyframe tracks at once. Each track interpolates a
+ * float value between its keyframes along a given duration, according to its
+ * {@link remixlab.fpstiming.Easing}. The state of all the tracks is packed into
+ * primitive arrays indexed by track id, so that a single {@link #animate()} call (and a
+ * single timer) per frame updates all the playing tracks, instead of having an
+ * {@link remixlab.fpstiming.AnimatorObject} per animated value.
+ * <p>
+ * Typical use:
+ * <p>
+ * {@code TweenEngine tweens = new TweenEngine(handler);}<br>
+ * {@code int alpha = tweens.addTrack(0, 255, 500, TimeUnit.MILLISECONDS);}<br>
+ * {@code tweens.start(alpha);}<br>
+ * {@code // at each frame, after handler.handle()}<br>
+ * {@code fill(tweens.value(alpha));}
+ * <p>
+ * Tracks are timed by the handler {@link remixlab.fpstiming.TimingHandler#frameTime()},
+ * and are evaluated at every frame by default (see
+ * {@link #setAnimationPeriod(long, boolean)} to evaluate them less often). The engine
+ * animation is started when a track is started and stopped when no track is playing.
+ */
+public class TweenEngine extends AnimatorObject {
+  static final int USED = 1;
+  static final int PLAYING = 2;
+  static final int REVERSED = 4;
+  static final int LOOP = 8;
+  static final int PING_PONG = 16;
+
+  protected int size;
+  protected int playing;
+  protected byte[] flags;
+  protected byte[] easing;
+  protected long[] start;
+  protected long[] duration;
+  protected int[] keyOffset;
+  protected int[] keyCount;
+  protected float[] values;
+  protected float[] keyTimes;
+  protected float[] keyValues;
+  protected int keySize;
+  protected int deadKeys;
+  protected int[] freeTracks;
+  protected int freeSize;
+
+  /**
+   * Constructs a tween engine registered at the given handler.
+   */
+  public TweenEngine(TimingHandler handler) {
+    super(handler);
+    setAnimationPeriod(1, false);
+    flags = new byte[16];
+    easing = new byte[16];
+    start = new long[16];
+    duration = new long[16];
+    keyOffset = new int[16];
+    keyCount = new int[16];
+    values = new float[16];
+    freeTracks = new int[16];
+    keyTimes = new float[64];
+    keyValues = new float[64];
+  }
+
+  /**
+   * Adds a track interpolating from {@code from} to {@code to} along the given duration,
+   * and returns its id. The track is not started.
+   *
+   * @see #addTrack(float[], float[], long, TimeUnit)
+   */
+  public int addTrack(float from, float to, long duration, TimeUnit unit) {
+    return addTrack(new float[] { 0, 1 }, new float[] { from, to }, duration, unit);
+  }
+
+  /**
+   * Adds a track interpolating the given keyframes along the given duration, and returns
+   * its id. Keyframe {@code times} are given as fractions of the duration, in ascending
+   * order within {@code [0,1]}. The track value is held at the first (resp. last)
+   * keyframe value before (resp. after) the first (resp. last) keyframe time. The track
+   * is not started.
+   *
+   * @throws IllegalArgumentException if there are no keyframes, if {@code times} and
+   *                                  {@code values} have different lengths, if the times
+   *                                  are not ascending within {@code [0,1]} or if the
+   *                                  duration is not positive
+   */
+  public int addTrack(float[] times, float[] values, long duration, TimeUnit unit) {
+    int n = times.length;
+    if (n == 0 || n != values.length)
+      throw new IllegalArgumentException("Keyframe times and values should have the same non-zero length");
+    for (int i = 0; i < n; i++)
+      if (times[i] < 0 || times[i] > 1 || (i > 0 && times[i] < times[i - 1]))
+        throw new IllegalArgumentException("Keyframe times should be ascending within [0,1]");
+    if (duration <= 0)
+      throw new IllegalArgumentException("Track duration should be positive");
+    int track;
+    if (freeSize > 0)
+      track = freeTracks[--freeSize];
+    else {
+      if (size == flags.length)
+        growTracks(size << 1);
+      track = size++;
+    }
+    if (keySize + n > keyTimes.length) {
+      int length = Math.max(keyTimes.length << 1, keySize + n);
+      keyTimes = Arrays.copyOf(keyTimes, length);
+      keyValues = Arrays.copyOf(keyValues, length);
+    }
+    System.arraycopy(times, 0, keyTimes, keySize, n);
+    System.arraycopy(values, 0, keyValues, keySize, n);
+    keyOffset[track] = keySize;
+    keyCount[track] = n;
+    keySize += n;
+    flags[track] = USED;
+    easing[track] = (byte) Easing.LINEAR.ordinal();
+    start[track] = 0;
+    this.duration[track] = unit.toNanos(duration);
+    this.values[track] = values[0];
+    return track;
+  }
+
+  /**
+   * Removes the track. Its id may be given to a track added afterwards.
+   */
+  public void removeTrack(int track) {
+    if (!isTrack(track))
+      return;
+    if ((flags[track] & PLAYING) != 0)
+      playing--;
+    flags[track] = 0;
+    deadKeys += keyCount[track];
+    keyCount[track] = 0;
+    freeTracks[freeSize++] = track;
+    if (deadKeys > keySize >> 1)
+      compactKeys();
+  }
+
+  /**
+   * Removes all the tracks.
+   */
+  public void clearTracks() {
+    Arrays.fill(flags, 0, size, (byte) 0);
+    size = 0;
+    playing = 0;
+    keySize = 0;
+    deadKeys = 0;
+    freeSize = 0;
+  }
+
+  /**
+   * Returns {@code true} if the given id refers to an existing track.
+   */
+  public boolean isTrack(int track) {
+    return track >= 0 && track < size && (flags[track] & USED) != 0;
+  }
+
+  /**
+   * Returns the number of tracks.
+   */
+  public int trackCount() {
+    return size - freeSize;
+  }
+
+  /**
+   * Returns the number of playing tracks.
+   */
+  public int playingCount() {
+    return playing;
+  }
+
+  protected void growTracks(int length) {
+    flags = Arrays.copyOf(flags, length);
+    easing = Arrays.copyOf(easing, length);
+    start = Arrays.copyOf(start, length);
+    duration = Arrays.copyOf(duration, length);
+    keyOffset = Arrays.copyOf(keyOffset, length);
+    keyCount = Arrays.copyOf(keyCount, length);
+    values = Arrays.copyOf(values, length);
+    freeTracks = Arrays.copyOf(freeTracks, length);
+  }
+
+  /**
+   * Drops the keyframes of the removed tracks from the packed keyframe arrays.
+   */
+  protected void compactKeys() {
+    float[] times = new float[Math.max(64, keySize - deadKeys)];
+    float[] vals = new float[times.length];
+    int k = 0;
+    for (int i = 0; i < size; i++) {
+      if ((flags[i] & USED) == 0)
+        continue;
+      System.arraycopy(keyTimes, keyOffset[i], times, k, keyCount[i]);
+      System.arraycopy(keyValues, keyOffset[i], vals, k, keyCount[i]);
+      keyOffset[i] = k;
+      k += keyCount[i];
+    }
+    keyTimes = times;
+    keyValues = vals;
+    keySize = k;
+    deadKeys = 0;
+  }
+
+  // controls
+
+  /**
+   * Starts playing the track from its beginning (or from its end, if it's
+   * {@link #isReversed(int)}).
+   */
+  public void start(int track) {
+    if (!isTrack(track))
+      return;
+    if ((flags[track] & PLAYING) == 0) {
+      flags[track] |= PLAYING;
+      playing++;
+    }
+    start[track] = handler.startTime();
+    values[track] = sample(track, (flags[track] & REVERSED) != 0 ? 1 : 0);
+    if (!animationStarted())
+      startAnimation();
+  }
+
+  /**
+   * Stops playing the track, which keeps its current {@link #value(int)}.
+   */
+  public void stop(int track) {
+    if (!isTrack(track) || (flags[track] & PLAYING) == 0)
+      return;
+    flags[track] &= ~PLAYING;
+    playing--;
+  }
+
+  /**
+   * Reverses the playing direction of the track. If it's playing, it goes back from its
+   * current position.
+   */
+  public void reverse(int track) {
+    if (!isTrack(track))
+      return;
+    flags[track] ^= REVERSED;
+    if ((flags[track] & PLAYING) != 0) {
+      long d = duration[track];
+      long now = handler.startTime();
+      long elapsed = Math.min(Math.max(now - start[track], 0), d);
+      start[track] = now - (d - elapsed);
+    }
+  }
+
+  /**
+   * Returns {@code true} if the track is playing and {@code false} otherwise.
+   */
+  public boolean isPlaying(int track) {
+    return isTrack(track) && (flags[track] & PLAYING) != 0;
+  }
+
+  /**
+   * Returns {@code true} if the track plays from its last keyframe to its first one.
+   *
+   * @see #reverse(int)
+   */
+  public boolean isReversed(int track) {
+    return isTrack(track) && (flags[track] & REVERSED) != 0;
+  }
+
+  /**
+   * Makes the track start over once it's done, instead of stopping.
+   */
+  public void setLoop(int track, boolean loop) {
+    setFlag(track, LOOP, loop);
+  }
+
+  /**
+   * Returns {@code true} if the track loops and {@code false} otherwise.
+   *
+   * @see #setLoop(int, boolean)
+   */
+  public boolean isLoop(int track) {
+    return isTrack(track) && (flags[track] & LOOP) != 0;
+  }
+
+  /**
+   * Makes the track loop reversing its direction each time it's done.
+   */
+  public void setPingPong(int track, boolean pingPong) {
+    setFlag(track, PING_PONG, pingPong);
+  }
+
+  /**
+   * Returns {@code true} if the track loops back and forth and {@code false} otherwise.
+   *
+   * @see #setPingPong(int, boolean)
+   */
+  public boolean isPingPong(int track) {
+    return isTrack(track) && (flags[track] & PING_PONG) != 0;
+  }
+
+  protected void setFlag(int track, int flag, boolean value) {
+    if (!isTrack(track))
+      return;
+    if (value)
+      flags[track] |= flag;
+    else
+      flags[track] &= ~flag;
+  }
+
+  /**
+   * Defines the easing used to interpolate between the track keyframes. Default is
+   * {@link Easing#LINEAR}.
+   */
+  public void setEasing(int track, Easing e) {
+    if (isTrack(track))
+      easing[track] = (byte) e.ordinal();
+  }
+
+  /**
+   * Returns the easing used to interpolate between the track keyframes.
+   */
+  public Easing easing(int track) {
+    return Easing.VALUES[easing[track]];
+  }
+
+  /**
+   * Defines the track duration. Takes effect the next time the track is started.
+   */
+  public void setDuration(int track, long d, TimeUnit unit) {
+    if (isTrack(track) && d > 0)
+      duration[track] = unit.toNanos(d);
+  }
+
+  /**
+   * Returns the track duration in the given time unit.
+   */
+  public long duration(int track, TimeUnit unit) {
+    return unit.convert(duration[track], TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Returns the current value of the track.
+   */
+  public float value(int track) {
+    return values[track];
+  }
+
+  /**
+   * Returns the current values of all the tracks, indexed by track id. The array is
+   * live: it's updated at each {@link #animate()} and replaced when more tracks are
+   * added.
+   */
+  public float[] values() {
+    return values;
+  }
+
+  /**
+   * Returns the track value at the given fraction of its duration.
+   */
+  public float sample(int track, float u) {
+    int first = keyOffset[track];
+    int last = first + keyCount[track] - 1;
+    if (u <= keyTimes[first])
+      return keyValues[first];
+    if (u >= keyTimes[last])
+      return keyValues[last];
+    int k = first;
+    while (keyTimes[k + 1] < u)
+      k++;
+    float t0 = keyTimes[k];
+    float t = keyTimes[k + 1] - t0;
+    float w = t > 0 ? Easing.ease(easing[track], (u - t0) / t) : 1;
+    return keyValues[k] + (keyValues[k + 1] - keyValues[k]) * w;
+  }
+
+  /**
+   * Updates the values of all the playing tracks at the current handler
+   * {@link remixlab.fpstiming.TimingHandler#frameTime()}, and stops the engine animation
+   * once no track is playing.
+   */
+  @Override
+  public void animate() {
+    long now = handler.frameTime();
+    byte[] flags = this.flags;
+    for (int i = 0; i < size; i++) {
+      int f = flags[i];
+      if ((f & PLAYING) == 0)
+        continue;
+      long d = duration[i];
+      long elapsed = now - start[i];
+      if (elapsed >= d) {
+        if ((f & (LOOP | PING_PONG)) != 0) {
+          long cycles = elapsed / d;
+          start[i] += cycles * d;
+          elapsed -= cycles * d;
+          if ((f & PING_PONG) != 0 && (cycles & 1) != 0)
+            flags[i] = (byte) (f ^= REVERSED);
+        } else {
+          flags[i] = (byte) (f & ~PLAYING);
+          playing--;
+          values[i] = sample(i, (f & REVERSED) != 0 ? 0 : 1);
+          finished(i);
+          flags = this.flags;
+          continue;
+        }
+      } else if (elapsed < 0)
+        elapsed = 0;
+      float u = (float) ((double) elapsed / d);
+      values[i] = sample(i, (f & REVERSED) != 0 ? 1 - u : u);
+    }
+    if (playing == 0)
+      stopAnimation();
+  }
+
+  /**
+   * Called when a track that doesn't loop is done. Override it to get notified, e.g., to
+   * chain tracks.
+   */
+  protected void finished(int track) {
+  }
+}
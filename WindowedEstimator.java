@@ -0,0 +1,138 @@
+/**************************************************************************************
+ * fpstiming_tree
+ * Copyright (c) 2014-2017 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ **************************************************************************************/
+
+package remixlab.fpstiming;
+
+import java.util.Arrays;
+
+/**
+ * {@link remixlab.fpstiming.FrameRateEstimator} keeping the last frame times in a ring
+ * buffer, from which it computes windowed statistics: mean, median, percentiles and
+ * jitter (standard deviation) of the frame time.
+ * <p>
+ * The {@link #framePeriod()} prediction is the median frame time of the window, which
+ * isn't thrown off by a single stall the way an average is. Until the first frame is
+ * measured the prediction is {@code 0}, i.e., timers are only triggered once they are
+ * due, instead of ahead of time according to an arbitrary initial frame rate.
+ * <p>
+ * A sorted copy of the window is updated as frames come and go, so that each
+ * {@link #update(long)} costs a couple of binary searches and array shifts, and the
+ * median and the percentiles are read from it directly.
+ */
+public class WindowedEstimator implements FrameRateEstimator {
+  protected long[] window;
+  // the frame times of the window, kept sorted as they come and go
+  protected long[] sorted;
+  protected int count;
+  protected int next;
+  protected long sum;
+  protected double sumOfSquares;
+  protected long median;
+
+  /**
+   * Same as {@code this(60)}.
+   */
+  public WindowedEstimator() {
+    this(60);
+  }
+
+  /**
+   * Constructs an estimator over a window of the given number of frames.
+   */
+  public WindowedEstimator(int size) {
+    window = new long[Math.max(1, size)];
+    sorted = new long[window.length];
+  }
+
+  @Override
+  public void update(long frameNanos) {
+    if (frameNanos <= 0)
+      return;
+    if (count == window.length) {
+      long old = window[next];
+      sum -= old;
+      sumOfSquares -= (double) old * old;
+      int i = Arrays.binarySearch(sorted, 0, count, old);
+      System.arraycopy(sorted, i + 1, sorted, i, --count - i);
+    }
+    int i = Arrays.binarySearch(sorted, 0, count, frameNanos);
+    if (i < 0)
+      i = -i - 1;
+    System.arraycopy(sorted, i, sorted, i + 1, count++ - i);
+    sorted[i] = frameNanos;
+    window[next] = frameNanos;
+    sum += frameNanos;
+    sumOfSquares += (double) frameNanos * frameNanos;
+    if (++next == window.length)
+      next = 0;
+    median = sorted[count / 2];
+  }
+
+  @Override
+  public float frameRate() {
+    return median == 0 ? 0 : 1e9f / median;
+  }
+
+  @Override
+  public long framePeriod() {
+    return median;
+  }
+
+  @Override
+  public void reset() {
+    count = next = 0;
+    sum = 0;
+    sumOfSquares = 0;
+    median = 0;
+  }
+
+  /**
+   * Returns the number of frames currently in the window.
+   */
+  public int size() {
+    return count;
+  }
+
+  /**
+   * Returns the mean frame time of the window, in nanoseconds.
+   */
+  public double mean() {
+    return count == 0 ? 0 : (double) sum / count;
+  }
+
+  /**
+   * Returns the median frame time of the window, in nanoseconds.
+   */
+  public long median() {
+    return median;
+  }
+
+  /**
+   * Returns the frame time of the window, in nanoseconds, below which the given fraction
+   * (in {@code [0..1]}) of the frames fall, e.g., {@code percentile(0.95)}.
+   */
+  public long percentile(double fraction) {
+    if (count == 0)
+      return 0;
+    int index = (int) Math.ceil(fraction * count) - 1;
+    return sorted[Math.max(0, Math.min(count - 1, index))];
+  }
+
+  /**
+   * Returns the frame time jitter of the window, i.e., the standard deviation of the frame
+   * time, in nanoseconds.
+   */
+  public double jitter() {
+    if (count == 0)
+      return 0;
+    double mean = mean();
+    return Math.sqrt(Math.max(0, sumOfSquares / count - mean * mean));
+  }
+}
@@ -0,0 +1,129 @@
+/**************************************************************************************
+ * fpstiming_tree
+ * Copyright (c) 2014-2017 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ **************************************************************************************/
+
+package remixlab.fpstiming;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks comparing the {@link remixlab.fpstiming.TimingHandler#handle()}
+ * dispatch over the pre-resolved lists of active timers and started animated objects
+ * ({@code typed}) against a scan of the whole pools resolving each entry through the
+ * {@link remixlab.fpstiming.TimingTask} and {@link remixlab.fpstiming.Animator}
+ * interfaces ({@code scan}), as {@code handle()} used to do, e.g.:
+ * <p>
+ * {@code java -jar bench/target/benchmarks.jar DispatchBenchmark -rf json -rff dispatch.json}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class DispatchBenchmark {
+  static final long SEED = 0x5EED;
+  static final long FRAME_NANOS = 16666667L; // 60Hz
+
+  /**
+   * Number of registered tasks and animators.
+   */
+  @Param({"1000", "100000"})
+  public int poolSize;
+
+  /**
+   * Fraction of the tasks and animators that are running.
+   */
+  @Param({"0.01", "0.1", "1.0"})
+  public double activeRatio;
+
+  ManualClock clock;
+  TimingHandler handler;
+
+  static class Task extends TimingTask {
+    long count;
+
+    @Override
+    public void execute() {
+      count++;
+    }
+  }
+
+  static class Anim extends AnimatorObject {
+    long count;
+
+    Anim(TimingHandler handler) {
+      super(handler);
+    }
+
+    @Override
+    public void animate() {
+      count++;
+    }
+  }
+
+  @Setup(Level.Trial)
+  public void setup() {
+    Random random = new Random(SEED);
+    clock = new ManualClock();
+    handler = new TimingHandler(clock);
+    for (int i = 0; i < poolSize; i++) {
+      Task task = new Task();
+      handler.registerTask(task);
+      if (random.nextDouble() < activeRatio)
+        task.run(1 + random.nextInt(100));
+      Anim anim = new Anim(handler);
+      anim.setAnimationPeriod(1 + random.nextInt(100), false);
+      if (random.nextDouble() < activeRatio)
+        anim.startAnimation();
+    }
+    // warm up the frame rate estimation
+    for (int i = 0; i < 100; i++) {
+      clock.advance(FRAME_NANOS);
+      handler.updateFrameRate();
+    }
+  }
+
+  @Benchmark
+  public void typed() {
+    clock.advance(FRAME_NANOS);
+    handler.updateFrameRate();
+    handler.handleTimerPool();
+    handler.handleAnimatorPool(null);
+  }
+
+  @Benchmark
+  public void scan() {
+    clock.advance(FRAME_NANOS);
+    handler.updateFrameRate();
+    Pool<TimingTask> tasks = handler.tPool;
+    for (int i = 0; i < tasks.size(); i++)
+      handler.execute(tasks.get(i));
+    Pool<Animator> animators = handler.aPool;
+    for (int i = 0; i < animators.size(); i++) {
+      Animator aObj = animators.get(i);
+      if (aObj.animationStarted())
+        handler.animate(aObj);
+    }
+  }
+}
@@ -0,0 +1,76 @@
+/**************************************************************************************
+ * fpstiming_tree
+ * Copyright (c) 2014-2017 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ **************************************************************************************/
+
+package remixlab.fpstiming;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH benchmarks of the per frame work that doesn't depend on the pool sizes: the
+ * {@link remixlab.fpstiming.TimingHandler#updateFrameRate()} estimation and a single
+ * {@link remixlab.fpstiming.SeqTimer#trigggered()} check, e.g.:
+ * <p>
+ * {@code java -jar bench/target/benchmarks.jar FrameRateBenchmark -prof gc -rf json -rff frame.json}
+ *
+ * @see remixlab.fpstiming.TimingHandlerBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class FrameRateBenchmark {
+  static final long FRAME_NANOS = 16666667L; // 60Hz
+
+  ManualClock clock;
+  TimingHandler handler;
+  SeqTimer timer;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    clock = new ManualClock();
+    handler = new TimingHandler(clock);
+    timer = new SeqTimer(handler);
+    timer.run(1);
+    // warm up the frame rate estimation
+    for (int i = 0; i < 100; i++) {
+      clock.advance(FRAME_NANOS);
+      handler.updateFrameRate();
+    }
+  }
+
+  @Benchmark
+  public void updateFrameRate(Blackhole bh) {
+    clock.advance(FRAME_NANOS);
+    handler.updateFrameRate();
+    bh.consume(handler.frameRate());
+  }
+
+  @Benchmark
+  public boolean trigggered() {
+    clock.advance(FRAME_NANOS);
+    handler.updateFrameRate();
+    return timer.trigggered();
+  }
+}
@@ -0,0 +1,162 @@
+/**************************************************************************************
+ * fpstiming_tree
+ * Copyright (c) 2014-2017 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ **************************************************************************************/
+
+package remixlab.fpstiming;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks of the {@link remixlab.fpstiming.TimingHandler#handle()} hot loop.
+ * <p>
+ * The handler is driven by a {@link remixlab.fpstiming.ManualClock} advanced by a fixed
+ * frame period at each invocation and the pools are populated from a fixed seed, so that
+ * runs are reproducible and their reports can be diffed between releases, e.g.:
+ * <p>
+ * {@code mvn -f bench/pom.xml clean package}
+ * <p>
+ * {@code java -jar bench/target/benchmarks.jar TimingHandlerBenchmark -prof gc -rf json -rff handle.json}
+ * <p>
+ * where {@code -prof gc} reports the allocation rate of each benchmark.
+ *
+ * @see remixlab.fpstiming.FrameRateBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class TimingHandlerBenchmark {
+  static final long SEED = 0x5EED;
+  static final long FRAME_NANOS = 16666667L; // 60Hz
+
+  /**
+   * Number of registered tasks and animators.
+   */
+  @Param({"10", "1000", "100000", "1000000"})
+  public int poolSize;
+
+  /**
+   * Fraction of the tasks and animators that are running.
+   */
+  @Param({"0.0", "0.1", "1.0"})
+  public double activeRatio;
+
+  /**
+   * Fraction of the running tasks that are single shot. They are re-armed right after
+   * they fire, so that every measured iteration keeps the same share of them.
+   */
+  @Param({"0.0", "0.5"})
+  public double singleShotRatio;
+
+  /**
+   * How the task handler keeps its sequential timers: scanning the timer pool, in the
+   * timer queue or in the timer store.
+   */
+  @Param({"pool", "queue", "store"})
+  public String timerLayout;
+
+  ManualClock clock;
+  TimingHandler taskHandler;
+  TimingHandler animatorHandler;
+  // single shot tasks fired at the current frame, to be re-armed
+  Task[] fired;
+  int firedCount;
+
+  class Task extends TimingTask {
+    long count;
+    long period;
+
+    @Override
+    public void execute() {
+      count++;
+      if (timer().isSingleShot())
+        fired[firedCount++] = this;
+    }
+  }
+
+  static class Anim extends AnimatorObject {
+    long count;
+
+    Anim(TimingHandler handler) {
+      super(handler);
+    }
+
+    @Override
+    public void animate() {
+      count++;
+    }
+  }
+
+  @Setup(Level.Trial)
+  public void setup() {
+    Random random = new Random(SEED);
+    clock = new ManualClock();
+    taskHandler = new TimingHandler(clock);
+    animatorHandler = new TimingHandler(clock);
+    if (timerLayout.equals("queue"))
+      taskHandler.enableTimerQueue();
+    else if (timerLayout.equals("store"))
+      taskHandler.enableTimerStore();
+    fired = new Task[poolSize];
+    for (int i = 0; i < poolSize; i++) {
+      Task task = new Task();
+      taskHandler.registerTask(task);
+      if (random.nextDouble() < activeRatio) {
+        task.period = 1 + random.nextInt(1000);
+        if (random.nextDouble() < singleShotRatio)
+          task.runOnce(task.period);
+        else
+          task.run(task.period);
+      }
+      Anim anim = new Anim(animatorHandler);
+      anim.setAnimationPeriod(1 + random.nextInt(100), false);
+      if (random.nextDouble() < activeRatio)
+        anim.startAnimation();
+    }
+    // warm up the frame rate estimation
+    for (int i = 0; i < 100; i++) {
+      clock.advance(FRAME_NANOS);
+      taskHandler.updateFrameRate();
+      animatorHandler.updateFrameRate();
+    }
+  }
+
+  @Benchmark
+  public void handleTasks() {
+    clock.advance(FRAME_NANOS);
+    taskHandler.handle();
+    for (int i = 0; i < firedCount; i++) {
+      fired[i].runOnce(fired[i].period);
+      fired[i] = null;
+    }
+    firedCount = 0;
+  }
+
+  @Benchmark
+  public void handleAnimators() {
+    clock.advance(FRAME_NANOS);
+    animatorHandler.handle();
+  }
+}
@@ -0,0 +1,239 @@
+/**************************************************************************************
+ * fpstiming_tree
+ * Copyright (c) 2014-2017 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ **************************************************************************************/
+
+package remixlab.fpstiming;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeFalse;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests of the {@link remixlab.fpstiming.TimingHandler} timer pool bookkeeping, in each
+ * of its timer layouts: scanning the active timers, the timer queue and the timer store.
+ */
+@RunWith(Parameterized.class)
+public class TimingHandlerTest {
+  @Parameters(name = "{0}")
+  public static Collection<Object[]> layouts() {
+    return Arrays.asList(new Object[][]{{"pool"}, {"queue"}, {"store"}});
+  }
+
+  static class Task extends TimingTask {
+    int count;
+
+    @Override
+    public void execute() {
+      count++;
+    }
+  }
+
+  final String layout;
+  final ManualClock clock;
+  final TimingHandler handler;
+
+  public TimingHandlerTest(String layout) {
+    this.layout = layout;
+    clock = new ManualClock();
+    handler = new TimingHandler(clock);
+    if (layout.equals("queue"))
+      handler.enableTimerQueue();
+    else if (layout.equals("store"))
+      handler.enableTimerStore();
+  }
+
+  void frames(int frames) {
+    for (int i = 0; i < frames; i++) {
+      clock.advanceMillis(20);
+      handler.handle();
+    }
+  }
+
+  @Test
+  public void replacedTimerFires() {
+    Task task = new Task();
+    handler.registerTask(task);
+    task.setTimer(new SeqTimer(handler, task));
+    task.run(100);
+    frames(50);
+    assertTrue(task.count > 0);
+  }
+
+  @Test
+  public void reregisteredTaskStops() {
+    Task task = new Task();
+    handler.registerTask(task);
+    task.run(100);
+    frames(10);
+    handler.registerTask(task);
+    task.run(100);
+    frames(10);
+    task.stop();
+    int count = task.count;
+    frames(50);
+    assertTrue(count > 0);
+    assertEquals(count, task.count);
+  }
+
+  @Test
+  public void reregisteredTaskUnregisters() {
+    Task task = new Task();
+    handler.registerTask(task);
+    task.run(100);
+    frames(10);
+    handler.registerTask(task);
+    task.run(100);
+    frames(10);
+    handler.unregisterTask(task);
+    int count = task.count;
+    frames(50);
+    assertTrue(count > 0);
+    assertEquals(count, task.count);
+  }
+
+  @Test
+  public void sameFrameTasksRunInRegistrationOrder() {
+    // the timer queue executes them in deadline order
+    assumeFalse(layout.equals("queue"));
+    final List<Integer> order = new ArrayList<Integer>();
+    TimingTask[] tasks = new TimingTask[5];
+    for (int i = 0; i < tasks.length; i++) {
+      final int n = i;
+      tasks[i] = new TimingTask() {
+        @Override
+        public void execute() {
+          order.add(n);
+        }
+      };
+      handler.registerTask(tasks[i]);
+    }
+    for (int i = tasks.length - 1; i >= 0; i--)
+      tasks[i].run(100);
+    tasks[1].stop();
+    tasks[3].stop();
+    tasks[1].run(100);
+    tasks[3].run(100);
+    clock.advanceMillis(100);
+    handler.handle();
+    assertEquals(Arrays.asList(0, 1, 2, 3, 4), order);
+  }
+
+  @Test
+  public void nothingFiresWhilePaused() {
+    Task task = new Task();
+    handler.registerTask(task);
+    final int[] steps = new int[1];
+    AnimatorObject animator = new AnimatorObject(handler) {
+      @Override
+      public void animate() {
+        steps[0]++;
+      }
+    };
+    task.run(100);
+    animator.startAnimation();
+    frames(2);
+    // both are overdue by the time the handler gets paused
+    clock.advanceMillis(500);
+    handler.pause();
+    int count = task.count;
+    int animated = steps[0];
+    frames(20);
+    assertEquals(count, task.count);
+    assertEquals(animated, steps[0]);
+    handler.resume();
+    frames(10);
+    assertTrue(task.count > count);
+    assertTrue(steps[0] > animated);
+  }
+
+  @Test
+  public void convertedTimersKeepSubMillisecondPeriods() {
+    Task task = new Task();
+    handler.registerTask(task);
+    ((SeqTimer) task.timer()).run(500, TimeUnit.MICROSECONDS);
+    handler.parallelizeTimers();
+    assertTrue(task.isActive());
+    assertEquals(500, ((ParallelTimer) task.timer()).period(TimeUnit.MICROSECONDS));
+    handler.restoreTimers();
+    assertTrue(task.isActive());
+    assertEquals(500, ((SeqTimer) task.timer()).period(TimeUnit.MICROSECONDS));
+    task.stop();
+  }
+
+  @Test
+  public void taskRegisteredAtTwoHandlers() {
+    TimingHandler other = new TimingHandler(clock);
+    Task task = new Task();
+    handler.registerTask(task);
+    other.registerTask(task);
+    assertTrue(handler.isTaskRegistered(task));
+    assertTrue(other.isTaskRegistered(task));
+    handler.unregisterTask(task);
+    assertFalse(handler.isTaskRegistered(task));
+    assertTrue(other.isTaskRegistered(task));
+    assertEquals(1, other.tasks().size());
+  }
+
+  @Test
+  public void timerQueueSkipsTimersOfOtherHandlers() {
+    TimingHandler other = new TimingHandler(clock);
+    other.enableTimerQueue();
+    Task task = new Task();
+    handler.registerTask(task);
+    other.registerTask(task);
+    task.run(100);
+    handler.disableTimerQueue();
+    handler.enableTimerQueue();
+    frames(50);
+    assertEquals(0, task.count);
+    for (int i = 0; i < 50; i++) {
+      clock.advanceMillis(20);
+      other.handle();
+    }
+    assertTrue(task.count > 0);
+  }
+
+  @Test
+  public void groupResumeSkipsStoppedTasks() {
+    Task task = new Task();
+    handler.registerTask(task);
+    TaskGroup group = handler.taskGroup("group");
+    group.add(task);
+    task.run(100);
+    frames(10);
+    group.pause();
+    task.stop();
+    group.resume();
+    assertFalse(task.isActive());
+  }
+
+  @Test
+  public void nestedBatchesShareStartTime() {
+    handler.beginBatch();
+    long start = handler.startTime();
+    handler.beginBatch();
+    handler.endBatch();
+    clock.advanceMillis(5);
+    assertEquals(start, handler.startTime());
+    handler.endBatch();
+    assertEquals(handler.now(), handler.startTime());
+  }
+}
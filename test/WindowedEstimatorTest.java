@@ -0,0 +1,44 @@
+/**************************************************************************************
+ * fpstiming_tree
+ * Copyright (c) 2014-2017 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ **************************************************************************************/
+
+package remixlab.fpstiming;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Tests of the {@link remixlab.fpstiming.WindowedEstimator} statistics, against those of
+ * the sorted window.
+ */
+public class WindowedEstimatorTest {
+  @Test
+  public void statisticsFollowTheWindow() {
+    Random random = new Random(0x5EED);
+    WindowedEstimator estimator = new WindowedEstimator(60);
+    long[] frames = new long[1000];
+    for (int i = 0; i < frames.length; i++) {
+      // few distinct values, so that the window holds repeated ones
+      frames[i] = 1 + random.nextInt(20);
+      estimator.update(frames[i]);
+      int from = Math.max(0, i - 59);
+      long[] window = Arrays.copyOfRange(frames, from, i + 1);
+      Arrays.sort(window);
+      assertEquals(window.length, estimator.size());
+      assertEquals(window[window.length / 2], estimator.median());
+      assertEquals(window[(int) Math.ceil(0.95 * window.length) - 1], estimator.percentile(0.95));
+      assertEquals(window[0], estimator.percentile(0));
+      assertEquals(window[window.length - 1], estimator.percentile(1));
+    }
+  }
+}